@@ -137,6 +137,34 @@ const reverseTypeMap = Object.fromEntries(
   Object.entries(typeMap).map(([key, value]) => [value, key])
 );
 
+// Material summary from the listing (no content) in the frontend format
+const toMaterialSummary = (material) => ({
+  id: material.id,
+  type: reverseTypeMap[material.materialType] || material.materialType?.toLowerCase() || '',
+  title: material.topic,
+  topic: material.topic,
+  subject: material.subject || '',
+  languageLevel: material.languageLevel,
+  vocabPercentage: material.vocabPercentage,
+  createdAt: material.createdAt,
+  created: material.createdAt,
+  modified: material.modifiedAt || material.createdAt,
+  tags: material.tags || []
+});
+
+// Listing filters in the query format of GET /materials; empty filters are left out
+const toMaterialQuery = (filters = {}) => {
+  const query = {
+    tag: filters.tags?.length ? filters.tags : undefined,
+    tagMode: filters.tags?.length ? filters.tagMode : undefined,
+    type: filters.type ? typeMap[filters.type] || filters.type : undefined,
+    subject: filters.subject || undefined,
+    languageLevel: filters.languageLevel || undefined,
+    modifiedSince: filters.modifiedSince || undefined,
+  };
+  return Object.fromEntries(Object.entries(query).filter(([, value]) => value !== undefined));
+};
+
 export default {
   // Get available LLM models from RAG service
   async getAvailableModels() {
@@ -209,25 +237,62 @@ export default {
       };
     }
   },
-  // Get all saved materials
-  async getAllMaterials() {
+  // Get one page of saved materials as summaries (newest first);
+  // pass the nextCursor of the previous page to continue, null on the last page.
+  // The filters are applied by the backend; total (all matches) comes with the first page only
+  async getMaterialsPage(cursor = null, filters = {}) {
+    try {
+      const response = await apiClient.get("/materials", {
+        params: cursor ? { ...toMaterialQuery(filters), cursor } : toMaterialQuery(filters),
+        paramsSerializer: { indexes: null }, // tag=a&tag=b
+      });
+      return {
+        success: true,
+        data: response.data.items.map(toMaterialSummary),
+        nextCursor: response.data.nextCursor,
+        total: response.data.total ?? null,
+      };
+    } catch (error) {
+      return {
+        success: false,
+        error: error.message,
+        data: [],
+        nextCursor: null,
+        total: null,
+      };
+    }
+  },
+
+  // Number of own materials in total and per material type
+  async getMaterialStats() {
+    try {
+      const response = await apiClient.get("/materials/stats");
+      return {
+        success: true,
+        data: {
+          total: response.data.total,
+          byType: Object.fromEntries(Object.entries(response.data.byType).map(
+            ([type, count]) => [reverseTypeMap[type] || type, count])),
+        },
+      };
+    } catch (error) {
+      return {
+        success: false,
+        error: error.message,
+        data: null,
+      };
+    }
+  },
+
+  // Full-text search in the own materials, best matches first (summaries, no content)
+  async searchMaterials(query) {
     try {
-      const response = await apiClient.get("/materials");
+      const response = await apiClient.get("/materials/search", {
+        params: { q: query },
+      });
       return {
         success: true,
-        data: response.data.map((material) => ({
-          id: material.id,
-          type: reverseTypeMap[material.materialType] || material.materialType?.toLowerCase() || '',
-          title: material.topic,
-          topic: material.topic,
-          subject: material.subject || '',
-          preview: material.aiResponse,
-          content: material.aiResponse,
-          createdAt: material.createdAt,
-          created: material.createdAt,
-          modified: material.modifiedAt || material.createdAt,
-          tags: material.tags || []
-        })),
+        data: response.data.items.map((hit) => toMaterialSummary(hit.material)),
       };
     } catch (error) {
       return {
@@ -327,16 +392,17 @@ export default {
     }
   },
 
-  // Upload a document for RAG ingestion
+  // Upload a document for RAG ingestion; the file is sent as the raw request body
+  // and streamed through to the RAG service
   async uploadDocument(file, subject = '') {
     try {
-      const formData = new FormData();
-      formData.append('file', file);
+      const params = { filename: file.name };
       if (subject) {
-        formData.append('subject', subject);
+        params.subject = subject;
       }
-      const response = await apiClient.post('/documents/upload', formData, {
-        headers: { 'Content-Type': 'multipart/form-data' },
+      const response = await apiClient.post('/documents/upload/stream', file, {
+        params,
+        headers: { 'Content-Type': 'application/octet-stream' },
         timeout: 120000,
       });
       return { success: true, data: response.data };
@@ -391,13 +457,13 @@ export default {
     }
   },
 
-  // Admin: list all users
-  async getAdminUsers() {
+  // Admin: list users (paginated, sortable)
+  async getAdminUsers({ page = 0, size = 25, sort = 'createdAt', direction = 'desc' } = {}) {
     try {
-      const response = await apiClient.get('/admin/users');
+      const response = await apiClient.get('/admin/users', { params: { page, size, sort, direction } });
       return { success: true, data: response.data };
     } catch (error) {
-      return { success: false, error: error.message, data: [] };
+      return { success: false, error: error.message, data: { items: [], totalPages: 0 } };
     }
   },
 
@@ -454,7 +520,7 @@ export default {
   // Health check for backend
   async checkConnection() {
     try {
-      const response = await apiClient.get("/materials", { timeout: 5000 });
+      const response = await apiClient.get("/materials", { params: { limit: 1 }, timeout: 5000 });
       return {
         success: true,
         message: "Backend connection successful",
@@ -8,24 +8,65 @@ import apiClient from './deepinfra-api'
 class MaterialsService {
   
   /**
-   * Lädt alle Materialien
+   * Lädt eine Seite Materialien (Zusammenfassungen ohne Inhalt, neueste zuerst),
+   * gefiltert im Backend; total nur mit der ersten Seite
    */
-  async getAllMaterials() {
+  async getMaterialsPage(cursor = null, filters = {}) {
     try {
-      const response = await apiClient.getAllMaterials()
+      const response = await apiClient.getMaterialsPage(cursor, filters)
       
       if (!response.success) {
         throw new Error(response.error || 'Fehler beim Laden der Materialien')
       }
       
       // Transform API response to frontend format
-      return response.data.map(this.transformMaterialFromAPI)
+      return {
+        materials: response.data.map(this.transformMaterialFromAPI),
+        nextCursor: response.nextCursor,
+        total: response.total
+      }
     } catch (error) {
-      console.error('MaterialsService.getAllMaterials:', error)
+      console.error('MaterialsService.getMaterialsPage:', error)
       throw new Error(`Fehler beim Laden der Materialien: ${error.message}`)
     }
   }
 
+  /**
+   * Anzahl aller Materialien, gesamt und je Typ
+   */
+  async getMaterialStats() {
+    try {
+      const response = await apiClient.getMaterialStats()
+      
+      if (!response.success) {
+        throw new Error(response.error || 'Fehler beim Laden der Statistik')
+      }
+      
+      return response.data
+    } catch (error) {
+      console.error('MaterialsService.getMaterialStats:', error)
+      throw new Error(`Fehler beim Laden der Statistik: ${error.message}`)
+    }
+  }
+
+  /**
+   * Volltextsuche über Thema, Tags, Beschreibung und Inhalt (nach Relevanz sortiert)
+   */
+  async searchMaterials(query) {
+    try {
+      const response = await apiClient.searchMaterials(query)
+      
+      if (!response.success) {
+        throw new Error(response.error || 'Fehler bei der Suche')
+      }
+      
+      return response.data.map(this.transformMaterialFromAPI)
+    } catch (error) {
+      console.error('MaterialsService.searchMaterials:', error)
+      throw new Error(`Fehler bei der Suche: ${error.message}`)
+    }
+  }
+
   /**
    * Lädt ein einzelnes Material
    */
@@ -4,6 +4,11 @@ import materialsService from '@/services/materialsService'
 export const useMaterialsStore = defineStore('materials', {
   state: () => ({
     materials: [],
+    nextCursor: null, // Cursor der nächsten Seite, null wenn alle geladen sind
+    filters: {}, // Im Backend angewendete Filter der geladenen Liste
+    total: null, // Anzahl aller Treffer im Backend, nicht nur der geladenen Seiten
+    stats: null, // Gesamtzahl und Anzahl je Typ (GET /materials/stats)
+    loadingMore: false,
     loading: false,
     error: null
   }),
@@ -36,24 +41,32 @@ export const useMaterialsStore = defineStore('materials', {
       return grouped
     },
 
+    // Favoriten gibt es nur im Client: sie werden auf geladenen Materialien gesetzt,
+    // daher sind die geladenen Seiten hier vollständig
     favoriteMaterials: (state) => {
       return state.materials.filter(m => m.favorite)
     },
 
-    materialCount: (state) => state.materials.length
+    materialCount: (state) => state.total ?? state.materials.length,
+
+    hasMoreMaterials: (state) => state.nextCursor !== null
   },
 
   actions: {
     /**
-     * Lädt alle Materialien vom Backend
+     * Lädt die erste Seite Materialien vom Backend, weitere Seiten über fetchMoreMaterials.
+     * Die Filter (tags, tagMode, type, subject, languageLevel, modifiedSince) wertet das Backend aus.
      */
-    async fetchMaterials() {
+    async fetchMaterials(filters = {}) {
       this.loading = true
       this.error = null
       
       try {
-        const materials = await materialsService.getAllMaterials()
+        const { materials, nextCursor, total } = await materialsService.getMaterialsPage(null, filters)
         this.materials = materials
+        this.nextCursor = nextCursor
+        this.filters = filters
+        this.total = total
       } catch (error) {
         this.error = error.message
         console.error('Store.fetchMaterials:', error)
@@ -63,6 +76,41 @@ export const useMaterialsStore = defineStore('materials', {
       }
     },
 
+    /**
+     * Lädt die Anzahl aller Materialien (gesamt und je Typ) für Dashboard und Statistik
+     */
+    async fetchStats() {
+      try {
+        this.stats = await materialsService.getMaterialStats()
+      } catch (error) {
+        console.error('Store.fetchStats:', error)
+      }
+      return this.stats
+    },
+
+    /**
+     * Hängt die nächste Seite an, solange es weitere gibt
+     */
+    async fetchMoreMaterials() {
+      if (this.nextCursor === null || this.loadingMore) return
+      
+      this.loadingMore = true
+      this.error = null
+      
+      try {
+        const { materials, nextCursor } = await materialsService.getMaterialsPage(this.nextCursor, this.filters)
+        const loaded = new Set(this.materials.map(m => m.id))
+        this.materials.push(...materials.filter(m => !loaded.has(m.id)))
+        this.nextCursor = nextCursor
+      } catch (error) {
+        this.error = error.message
+        console.error('Store.fetchMoreMaterials:', error)
+        throw error
+      } finally {
+        this.loadingMore = false
+      }
+    },
+
     /**
      * Erstellt ein neues Material
      */
@@ -74,6 +122,8 @@ export const useMaterialsStore = defineStore('materials', {
         const newMaterial = await materialsService.createMaterial(materialData);
         
         this.materials.unshift(newMaterial); // Add to beginning for visibility
+        if (this.total !== null) this.total++;
+        this.stats = null;
         return newMaterial;
       } catch (error) {
         this.error = error.message;
@@ -103,6 +153,7 @@ export const useMaterialsStore = defineStore('materials', {
             modified: new Date().toISOString()
           }
         }
+        this.stats = null // Typ kann sich geändert haben
         
         return updatedMaterial
       } catch (error) {
@@ -125,7 +176,10 @@ export const useMaterialsStore = defineStore('materials', {
         await materialsService.deleteMaterial(id)
         
         // Remove from store
+        const before = this.materials.length
         this.materials = this.materials.filter(m => m.id !== id)
+        if (this.total !== null && this.materials.length < before) this.total--
+        this.stats = null
       } catch (error) {
         this.error = error.message
         console.error('Store.deleteMaterial:', error)
@@ -175,9 +229,9 @@ export const useMaterialsStore = defineStore('materials', {
      * Lädt ein einzelnes Material (für Details-View)
      */
     async fetchMaterialById(id) {
-      // Check if already in store
+      // Check if already in store; list entries are summaries without content
       const existing = this.getMaterialById(id)
-      if (existing) {
+      if (existing && existing.content !== undefined) {
         return existing
       }
       
@@ -211,18 +265,18 @@ export const useMaterialsStore = defineStore('materials', {
     },
 
     /**
-     * Sucht in Materialien
+     * Sucht in Materialien (Volltextsuche im Backend, inkl. Inhalt)
      */
-    searchMaterials(query) {
+    async searchMaterials(query) {
       if (!query || query.trim() === '') return this.materials
       
-      const searchTerm = query.toLowerCase()
-      return this.materials.filter(m => 
-        m.title.toLowerCase().includes(searchTerm) ||
-        m.subject?.toLowerCase().includes(searchTerm) ||
-        m.tags?.some(tag => tag.toLowerCase().includes(searchTerm)) ||
-        m.content?.toLowerCase().includes(searchTerm)
-      )
+      try {
+        return await materialsService.searchMaterials(query.trim())
+      } catch (error) {
+        this.error = error.message
+        console.error('Store.searchMaterials:', error)
+        throw error
+      }
     },
 
     /**
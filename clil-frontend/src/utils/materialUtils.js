@@ -79,18 +79,26 @@ export function formatDate(date, formatString = 'dd.MM.yyyy HH:mm') {
   return format(new Date(date), formatString, { locale: de });
 }
 
-// Statistik-Berechnung
-export function calculateMaterialStats(materials) {
+// Statistik-Berechnung: Gesamtzahl und Typen aus den Zählungen des Backends (GET /materials/stats),
+// ohne diese aus den geladenen Materialien. Favoriten gibt es nur im Client.
+export function calculateMaterialStats(materials, counts = null) {
   const stats = {
-    total: materials.length,
+    total: counts ? counts.total : materials.length,
     byType: {},
     favorites: materials.filter(m => m.favorite).length
   };
 
   // Zähle Materialien nach Typ
-  Object.keys(MATERIAL_TYPES).forEach(type => {
-    stats.byType[type] = materials.filter(m => m.type === type).length;
-  });
+  if (counts) {
+    Object.entries(counts.byType).forEach(([type, count]) => {
+      const title = getMaterialTypeTitle(type);
+      stats.byType[title] = (stats.byType[title] || 0) + count;
+    });
+  } else {
+    Object.keys(MATERIAL_TYPES).forEach(type => {
+      stats.byType[type] = materials.filter(m => m.type === type).length;
+    });
+  }
 
   return stats;
-} 
\ No newline at end of file
+}
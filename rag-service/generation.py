@@ -100,6 +100,48 @@ _CITATION_INSTRUCTIONS = {
 }
 
 
+def _retrieve_context(
+    user_prompt: str,
+    user_id: str,
+    subject: str | None,
+    top_k: int,
+    citation_style: str,
+) -> tuple[str, list[dict]]:
+    """Retrieve the user's chunks and build the numbered context block.
+
+    Returns (context_block, sources); both are empty when nothing matched.
+    """
+    vs = get_vectorstore()
+    results_with_score = vs.similarity_search_with_score(
+        user_prompt,
+        k=top_k,
+        filter=_build_filter(user_id, subject),
+    )
+
+    sources = []
+    if not results_with_score:
+        return "", sources
+
+    # Build numbered context block with source labels
+    context_parts = []
+    for i, (doc, dist) in enumerate(results_with_score):
+        ref_num = i + 1
+        label = _source_label(doc, ref_num)
+        context_parts.append(f"{label}:\n{doc.page_content}")
+        sources.append(_build_source(doc, dist, ref_number=ref_num))
+
+    context = "\n\n".join(context_parts)
+    citation_instr = _CITATION_INSTRUCTIONS.get(citation_style, "")
+    context_block = (
+        "\n\nDie folgenden Auszuege aus hochgeladenen Dokumenten sollen als "
+        "zusaetzlicher Kontext fuer die Materialerstellung dienen. "
+        "Beziehe relevante Informationen daraus ein:\n\n"
+        f"--- Dokumentkontext ---\n{context}\n--- Ende Dokumentkontext ---"
+        f"{citation_instr}\n"
+    )
+    return context_block, sources
+
+
 # Parametric generation (no retrieval)
 
 def parametric_generate(
@@ -135,34 +177,8 @@ def rag_parametric_generate(
 
     Returns {"formattedResponse": str, "sources": [...]}.
     """
-    vs = get_vectorstore()
-    results_with_score = vs.similarity_search_with_score(
-        user_prompt,
-        k=top_k,
-        filter=_build_filter(user_id, subject),
-    )
-
-    sources = []
-    if results_with_score:
-        # Build numbered context block with source labels
-        context_parts = []
-        for i, (doc, dist) in enumerate(results_with_score):
-            ref_num = i + 1
-            label = _source_label(doc, ref_num)
-            context_parts.append(f"{label}:\n{doc.page_content}")
-            sources.append(_build_source(doc, dist, ref_number=ref_num))
-
-        context = "\n\n".join(context_parts)
-        citation_instr = _CITATION_INSTRUCTIONS.get(citation_style, "")
-        context_block = (
-            "\n\nDie folgenden Auszuege aus hochgeladenen Dokumenten sollen als "
-            "zusaetzlicher Kontext fuer die Materialerstellung dienen. "
-            "Beziehe relevante Informationen daraus ein:\n\n"
-            f"--- Dokumentkontext ---\n{context}\n--- Ende Dokumentkontext ---"
-            f"{citation_instr}\n"
-        )
-    else:
-        context_block = ""
+    context_block, sources = _retrieve_context(
+        user_prompt, user_id, subject, top_k, citation_style)
 
     system_prompt = _load_system_prompt()
     enhanced_prompt = user_prompt + context_block + _HTML_SUFFIX
@@ -175,6 +191,42 @@ def rag_parametric_generate(
     return {"formattedResponse": response.content, "sources": sources}
 
 
+# Streaming generation (parametric or RAG-augmented)
+
+def stream_generate(
+    user_prompt: str,
+    model_name: str | None = None,
+    user_id: str | None = None,
+    subject: str | None = None,
+    top_k: int = 5,
+    citation_style: str = "numbered",
+):
+    """Stream generated material chunk by chunk.
+
+    Yields ("chunk", str) for every token batch the LLM emits and finally
+    ("sources", [...]) once generation has finished.  Retrieval only runs
+    when a user_id is given, mirroring rag_parametric_generate.
+    """
+    if user_id:
+        context_block, sources = _retrieve_context(
+            user_prompt, user_id, subject, top_k, citation_style)
+    else:
+        context_block, sources = "", []
+
+    system_prompt = _load_system_prompt()
+    enhanced_prompt = user_prompt + context_block + _HTML_SUFFIX
+
+    llm = get_llm(model_name)
+    for chunk in llm.stream([
+        SystemMessage(content=system_prompt),
+        HumanMessage(content=enhanced_prompt),
+    ]):
+        if chunk.content:
+            yield "chunk", chunk.content
+
+    yield "sources", sources
+
+
 # RAG query generation (retrieve → context → answer)
 
 def rag_generate(
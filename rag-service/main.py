@@ -3,6 +3,7 @@ Helikon RAG Service
 
 Endpoints (all under /rag prefix):
     POST   /rag/generate        parametric CLIL-material generation
+    POST   /rag/generate/stream same as /generate, streamed as text/event-stream
     POST   /rag/ingest          upload + chunk + embed documents
     POST   /rag/query           RAG query  (retrieve → generate)
     GET    /rag/documents       list user's uploaded documents
@@ -1,7 +1,10 @@
+import json
+
 from fastapi import APIRouter
+from fastapi.responses import StreamingResponse
 from pydantic import BaseModel
 
-from generation import parametric_generate, rag_parametric_generate
+from generation import parametric_generate, rag_parametric_generate, stream_generate
 
 router = APIRouter()
 
@@ -75,3 +78,44 @@ def generate(req: GenerateRequest):
             "</div>"
         )
         return GenerateResponse(formattedResponse=error_html)
+
+
+def _sse(event: str, data: dict) -> str:
+    return f"event: {event}\ndata: {json.dumps(data)}\n\n"
+
+
+@router.post("/generate/stream")
+def generate_stream(req: GenerateRequest):
+    """Streaming variant of /generate as text/event-stream.
+
+    Emits ``chunk`` events ({"text": ...}) while the LLM produces output,
+    then a single ``sources`` event ({"sources": [...]}) and ``done``.
+    Errors are reported as an ``error`` event carrying the same HTML error
+    div that /generate returns in ``formattedResponse``.
+    """
+    use_context = req.useDocumentContext and req.userId
+
+    def events():
+        try:
+            for kind, payload in stream_generate(
+                user_prompt=req.prompt,
+                model_name=req.modelName,
+                user_id=req.userId if use_context else None,
+                subject=req.contextSubject,
+                citation_style=req.citationStyle,
+            ):
+                if kind == "chunk":
+                    yield _sse("chunk", {"text": payload})
+                else:
+                    yield _sse("sources", {"sources": payload})
+        except Exception as exc:
+            error_html = (
+                "<div class='error'>"
+                "<h3>Error generating content</h3>"
+                f"<p>{exc}</p>"
+                "</div>"
+            )
+            yield _sse("error", {"formattedResponse": error_html})
+        yield _sse("done", {})
+
+    return StreamingResponse(events(), media_type="text/event-stream")
@@ -0,0 +1,52 @@
+package at.technikum.clil.benchmark;
+
+import at.technikum.clil.dto.ClilResponse;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Jackson serialization of a generation result with RAG sources.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class ClilResponseSerializationBenchmark {
+
+    @Param({"5", "50", "500"})
+    private int sources;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private ClilResponse response;
+
+    @Setup
+    public void setUp() {
+        List<Map<String, Object>> sourceList = new ArrayList<>(sources);
+        for (int i = 0; i < sources; i++) {
+            Map<String, Object> source = new LinkedHashMap<>();
+            source.put("ref_number", i + 1);
+            source.put("filename", "Lehrbuch_Elektrotechnik_" + i + ".pdf");
+            source.put("doc_id", "doc-" + i);
+            source.put("chunk_index", i);
+            source.put("page_number", i % 300);
+            source.put("subject", "Elektrotechnik");
+            source.put("score", 0.8123);
+            source.put("snippet", "Der Widerstand eines Leiters ist proportional zu seiner Länge ...".repeat(3));
+            sourceList.add(source);
+        }
+        response = ClilResponse.builder()
+                .formattedResponse("<h1>Ohm's Law</h1>" + "<p>Voltage equals current times resistance.</p>".repeat(200))
+                .sources(sourceList)
+                .build();
+    }
+
+    @Benchmark
+    public byte[] serialize() throws Exception {
+        return objectMapper.writeValueAsBytes(response);
+    }
+}
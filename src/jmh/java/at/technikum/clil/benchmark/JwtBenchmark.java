@@ -0,0 +1,99 @@
+package at.technikum.clil.benchmark;
+
+import at.technikum.clil.model.Role;
+import at.technikum.clil.model.User;
+import at.technikum.clil.repository.UserRepository;
+import at.technikum.clil.security.JwtAuthenticationFilter;
+import at.technikum.clil.security.JwtService;
+import at.technikum.clil.security.PrincipalCache;
+import at.technikum.clil.security.TokenVersions;
+import at.technikum.clil.security.UserDetailsServiceImpl;
+import io.jsonwebtoken.Claims;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.FilterChain;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.lang.reflect.Proxy;
+import java.time.Duration;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JWT parsing/validation and the full authentication filter, as paid on every API request.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class JwtBenchmark {
+
+    private static final String SECRET =
+            "dGhpcy1pcy1hLWRldi1vbmx5LWp3dC1zZWNyZXQta2V5LXRoYXQtaXMtYXQtbGVhc3QtMjU2LWJpdHM=";
+
+    private JwtService jwtService;
+    private JwtService uncachedJwtService;
+    private JwtAuthenticationFilter filter;
+    private User user;
+    private String token;
+    private final FilterChain chain = (request, response) -> { };
+
+    @Setup
+    public void setUp() {
+        user = User.builder()
+                .id(1L)
+                .username("teacher")
+                .email("teacher@helikon.at")
+                .password("irrelevant")
+                .roles(Set.of(Role.USER))
+                .approved(true)
+                .build();
+        jwtService = new JwtService(SECRET, 86_400_000L, 604_800_000L, 1_000);
+        uncachedJwtService = new JwtService(SECRET, 86_400_000L, 604_800_000L, 0);
+        token = jwtService.generateAccessToken(user);
+        UserRepository userRepository = userRepositoryReturning(user);
+        PrincipalCache principalCache = new PrincipalCache(new UserDetailsServiceImpl(userRepository),
+                1_000, Duration.ofMinutes(5), new SimpleMeterRegistry());
+        filter = new JwtAuthenticationFilter(jwtService, principalCache, new TokenVersions(userRepository,
+                1_000, Duration.ofMinutes(5), new SimpleMeterRegistry()), true);
+    }
+
+    @Benchmark
+    public Optional<Claims> validate() {
+        return jwtService.validate(token);
+    }
+
+    @Benchmark
+    public Optional<Claims> validateUncached() {
+        return uncachedJwtService.validate(token);
+    }
+
+    @Benchmark
+    public void authenticationFilter(Blackhole bh) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/v1/clil/materials");
+        request.addHeader("Authorization", "Bearer " + token);
+        filter.doFilter(request, new MockHttpServletResponse(), chain);
+        bh.consume(SecurityContextHolder.getContext().getAuthentication());
+        SecurityContextHolder.clearContext();
+    }
+
+    /**
+     * In-memory stand-in for the JPA repository: only findByUsername and findTokenVersionById are answered.
+     */
+    private static UserRepository userRepositoryReturning(User user) {
+        return (UserRepository) Proxy.newProxyInstance(
+                UserRepository.class.getClassLoader(),
+                new Class<?>[]{UserRepository.class},
+                (proxy, method, args) -> switch (method.getName()) {
+                    case "findByUsername" -> Optional.of(user);
+                    case "findTokenVersionById" -> Optional.of(user.getTokenVersion());
+                    case "hashCode" -> System.identityHashCode(proxy);
+                    case "equals" -> proxy == args[0];
+                    case "toString" -> "UserRepositoryStub";
+                    default -> throw new UnsupportedOperationException(method.getName());
+                });
+    }
+}
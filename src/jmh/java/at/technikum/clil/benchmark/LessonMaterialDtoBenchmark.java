@@ -0,0 +1,55 @@
+package at.technikum.clil.benchmark;
+
+import at.technikum.clil.dto.LessonMaterialDto;
+import at.technikum.clil.model.ContentBlob;
+import at.technikum.clil.model.LessonMaterial;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Entity-to-DTO mapping of a material list, as done by GET /materials.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class LessonMaterialDtoBenchmark {
+
+    @Param({"10", "100", "1000"})
+    private int materials;
+
+    @Param({"20000"})
+    private int htmlBytes;
+
+    private List<LessonMaterial> entities;
+
+    @Setup
+    public void setUp() {
+        String html = "<p>" + "Ohm's law relates voltage, current and resistance. ".repeat(htmlBytes / 52) + "</p>";
+        entities = new ArrayList<>(materials);
+        for (long i = 0; i < materials; i++) {
+            entities.add(LessonMaterial.builder()
+                    .id(i)
+                    .materialType("worksheet")
+                    .topic("Electrical circuits " + i)
+                    .body(ContentBlob.of(html))
+                    .subject("Elektrotechnik")
+                    .languageLevel("B1")
+                    .vocabPercentage(30)
+                    .tags(List.of("physics", "circuits", "b1"))
+                    .createdAt(LocalDateTime.now().minusDays(i))
+                    .modifiedAt(LocalDateTime.now())
+                    .build());
+        }
+    }
+
+    @Benchmark
+    public List<LessonMaterialDto> fromEntity() {
+        return entities.stream()
+                .map(LessonMaterialDto::fromEntity)
+                .toList();
+    }
+}
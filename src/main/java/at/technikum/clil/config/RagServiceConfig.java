@@ -1,25 +1,78 @@
 package at.technikum.clil.config;
 
+import at.technikum.clil.service.UploadSourceException;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerConfig;
+import io.netty.channel.ChannelOption;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
 import org.springframework.web.reactive.function.client.ExchangeStrategies;
 import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+
+import java.time.Duration;
 
 @Slf4j
 @Configuration
 public class RagServiceConfig {
 
+    private static final Duration SLOW_CALLS_NOT_TRACKED = Duration.ofDays(1);
+
     @Value("${rag.service.url}")
     private String ragServiceUrl;
 
+    @Value("${rag.client.max-connections:50}")
+    private int maxConnections;
+
+    @Value("${rag.client.pending-acquire-max-count:200}")
+    private int pendingAcquireMaxCount;
+
+    @Value("${rag.client.pending-acquire-timeout:PT10S}")
+    private Duration pendingAcquireTimeout;
+
+    @Value("${rag.client.max-idle-time:PT30S}")
+    private Duration maxIdleTime;
+
+    @Value("${rag.client.connect-timeout:PT5S}")
+    private Duration connectTimeout;
+
+    @Value("${rag.client.circuit-breaker.failure-rate-threshold:50}")
+    private float failureRateThreshold;
+
+    @Value("${rag.client.circuit-breaker.wait-in-open-state:PT30S}")
+    private Duration waitInOpenState;
+
+    /**
+     * Dedicated connection pool for the RAG service, so slow generations cannot
+     * exhaust the shared reactor-netty pool and idle connections get evicted.
+     */
+    @Bean(destroyMethod = "dispose")
+    public ConnectionProvider ragConnectionProvider() {
+        return ConnectionProvider.builder("rag-service")
+                .maxConnections(maxConnections)
+                .pendingAcquireMaxCount(pendingAcquireMaxCount)
+                .pendingAcquireTimeout(pendingAcquireTimeout)
+                .maxIdleTime(maxIdleTime)
+                .evictInBackground(maxIdleTime)
+                .build();
+    }
+
     @Bean
-    public WebClient ragServiceWebClient() {
-        log.info("Configuring RAG service WebClient with URL: {}", ragServiceUrl);
+    public WebClient ragServiceWebClient(ConnectionProvider ragConnectionProvider) {
+        log.info("Configuring RAG service WebClient with URL: {} (max connections: {})",
+                ragServiceUrl, maxConnections);
+
+        HttpClient httpClient = HttpClient.create(ragConnectionProvider)
+                .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, (int) connectTimeout.toMillis());
 
         return WebClient.builder()
                 .baseUrl(ragServiceUrl)
+                .clientConnector(new ReactorClientHttpConnector(httpClient))
                 .defaultHeader("Content-Type", "application/json")
                 .exchangeStrategies(ExchangeStrategies.builder()
                         .codecs(configurer -> configurer.defaultCodecs()
@@ -27,4 +80,32 @@ public class RagServiceConfig {
                         .build())
                 .build();
     }
+
+    /**
+     * Opens after repeated transport failures or 5xx answers so calls fail fast
+     * while the Python service is down. 4xx responses, slow answers and uploads
+     * aborted on the client side are not counted.
+     */
+    @Bean
+    public CircuitBreaker ragServiceCircuitBreaker() {
+        CircuitBreakerConfig config = CircuitBreakerConfig.custom()
+                .failureRateThreshold(failureRateThreshold)
+                .slidingWindowSize(20)
+                .minimumNumberOfCalls(10)
+                .waitDurationInOpenState(waitInOpenState)
+                .permittedNumberOfCallsInHalfOpenState(3)
+                // Slow calls are not counted: generations legitimately take minutes and streams
+                // are timed as a whole, while hanging calls already fail on the route timeouts
+                .slowCallDurationThreshold(SLOW_CALLS_NOT_TRACKED)
+                .recordException(error -> !(error instanceof WebClientResponseException responseError)
+                        || responseError.getStatusCode().is5xxServerError())
+                // Uploads aborted by the client say nothing about the RAG service, not even as a success
+                .ignoreException(error -> UploadSourceException.find(error) != null)
+                .build();
+
+        CircuitBreaker circuitBreaker = CircuitBreaker.of("rag-service", config);
+        circuitBreaker.getEventPublisher().onStateTransition(event ->
+                log.warn("RAG service circuit breaker: {}", event.getStateTransition()));
+        return circuitBreaker;
+    }
 }
@@ -5,6 +5,10 @@ import at.technikum.clil.model.Role;
 import at.technikum.clil.service.AdminService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.JpaSort;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
@@ -21,11 +25,27 @@ import java.util.stream.Collectors;
 @RequiredArgsConstructor
 public class AdminController {
 
+    private static final int MAX_PAGE_SIZE = 100;
+    private static final Set<String> SORTABLE =
+            Set.of("id", "username", "email", "createdAt", "materialCount", "subjectCount");
+
     private final AdminService adminService;
 
     @GetMapping("/users")
-    public ResponseEntity<List<UserDto>> getAllUsers() {
-        return ResponseEntity.ok(adminService.getAllUsers());
+    public ResponseEntity<?> getUsers(
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "25") int size,
+            @RequestParam(defaultValue = "createdAt") String sort,
+            @RequestParam(defaultValue = "desc") String direction) {
+        if (!SORTABLE.contains(sort)) {
+            return ResponseEntity.badRequest().body(Map.of("error", "Unsupported sort field: " + sort));
+        }
+        Sort.Direction dir = Sort.Direction.fromOptionalString(direction).orElse(Sort.Direction.DESC);
+        // Counts are select aliases, not entity attributes, so they bypass property validation
+        Sort order = sort.endsWith("Count") ? JpaSort.unsafe(dir, sort) : Sort.by(dir, sort);
+        Pageable pageable = PageRequest.of(Math.max(page, 0), Math.max(1, Math.min(size, MAX_PAGE_SIZE)),
+                order.and(Sort.by(dir, "id")));
+        return ResponseEntity.ok(adminService.getUsers(pageable));
     }
 
     @GetMapping("/users/{id}")
@@ -1,9 +1,14 @@
 package at.technikum.clil.controller;
 
 import at.technikum.clil.dto.auth.*;
+import at.technikum.clil.security.AuthRateLimiter;
+import at.technikum.clil.service.AdmissionRejectedException;
 import at.technikum.clil.service.AuthService;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
@@ -16,13 +21,17 @@ import java.util.Map;
 public class AuthController {
 
     private final AuthService authService;
+    private final AuthRateLimiter rateLimiter;
 
     @PostMapping("/register")
-    public ResponseEntity<?> register(@Valid @RequestBody RegisterRequest request) {
+    public ResponseEntity<?> register(@Valid @RequestBody RegisterRequest request, HttpServletRequest httpRequest) {
         try {
+            rateLimiter.acquire(AuthRateLimiter.Endpoint.REGISTER, httpRequest.getRemoteAddr(), request.getUsername());
             authService.register(request);
             return ResponseEntity.ok(Map.of(
                     "message", "Registrierung erfolgreich. Bitte warten Sie auf die Freigabe durch einen Administrator."));
+        } catch (AdmissionRejectedException e) {
+            return tooManyRequests(e, "/api/v1/auth/register");
         } catch (IllegalArgumentException e) {
             return ResponseEntity.badRequest().body(
                     ErrorResponse.builder()
@@ -36,10 +45,13 @@ public class AuthController {
     }
 
     @PostMapping("/login")
-    public ResponseEntity<?> login(@Valid @RequestBody LoginRequest request) {
+    public ResponseEntity<?> login(@Valid @RequestBody LoginRequest request, HttpServletRequest httpRequest) {
         try {
+            rateLimiter.acquire(AuthRateLimiter.Endpoint.LOGIN, httpRequest.getRemoteAddr(), request.getUsername());
             AuthResponse response = authService.login(request);
             return ResponseEntity.ok(response);
+        } catch (AdmissionRejectedException e) {
+            return tooManyRequests(e, "/api/v1/auth/login");
         } catch (org.springframework.security.authentication.DisabledException e) {
             return ResponseEntity.status(403).body(
                     ErrorResponse.builder()
@@ -77,4 +89,17 @@ public class AuthController {
                             .build());
         }
     }
+
+    private ResponseEntity<ErrorResponse> tooManyRequests(AdmissionRejectedException e, String path) {
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(e.getRetryAfter().toSeconds()))
+                .body(ErrorResponse.builder()
+                        .status(429)
+                        .error("Too Many Requests")
+                        .message("Zu viele Versuche. Bitte versuchen Sie es in "
+                                + e.getRetryAfter().toSeconds() + " Sekunden erneut.")
+                        .timestamp(LocalDateTime.now())
+                        .path(path)
+                        .build());
+    }
 }
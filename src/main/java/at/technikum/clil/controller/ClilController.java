@@ -2,19 +2,41 @@ package at.technikum.clil.controller;
 
 import at.technikum.clil.dto.ClilResponse;
 import at.technikum.clil.dto.LessonMaterialDto;
+import at.technikum.clil.dto.MaterialBulkUpdateRequest;
 import at.technikum.clil.dto.MaterialCreateRequest;
+import at.technikum.clil.dto.MaterialFilter;
 import at.technikum.clil.dto.MaterialRequest;
+import at.technikum.clil.dto.MaterialStats;
 import at.technikum.clil.dto.MaterialUpdateRequest;
+import at.technikum.clil.dto.ModelCatalog;
 import at.technikum.clil.model.User;
+import at.technikum.clil.service.AdmissionRejectedException;
+import at.technikum.clil.service.AdmissionService;
 import at.technikum.clil.service.RagProxyService;
+import at.technikum.clil.service.MaterialExportFormat;
+import at.technikum.clil.service.MaterialExportTasks;
 import at.technikum.clil.service.MaterialService;
+import at.technikum.clil.service.ModelRegistry;
+import jakarta.servlet.http.HttpServletResponse;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.codec.ServerSentEvent;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.async.WebAsyncTask;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
 
 import java.time.Duration;
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
 
 @Slf4j
 @RestController
@@ -23,54 +45,161 @@ public class ClilController {
 
     private final RagProxyService ragProxyService;
     private final MaterialService materialService;
+    private final ModelRegistry modelRegistry;
+    private final AdmissionService admissionService;
+    private final MaterialExportTasks materialExportTasks;
 
-    public ClilController(RagProxyService ragProxyService, MaterialService materialService) {
+    public ClilController(RagProxyService ragProxyService, MaterialService materialService,
+                          ModelRegistry modelRegistry, AdmissionService admissionService,
+                          MaterialExportTasks materialExportTasks) {
         this.ragProxyService = ragProxyService;
         this.materialService = materialService;
+        this.modelRegistry = modelRegistry;
+        this.admissionService = admissionService;
+        this.materialExportTasks = materialExportTasks;
     }
 
     @GetMapping("/models")
-    public ResponseEntity<List<String>> getAvailableModels() {
-        try {
-            List<String> models = ragProxyService.listAvailableModels()
-                    .block(Duration.ofSeconds(30));
-            return ResponseEntity.ok(models);
-        } catch (Exception e) {
-            log.error("Error fetching models: {}", e.getMessage());
-            return ResponseEntity.internalServerError().build();
-        }
+    public Mono<ResponseEntity<List<String>>> getAvailableModels() {
+        return modelRegistry.current()
+                .timeout(Duration.ofSeconds(30))
+                .map(catalog -> ResponseEntity.ok(catalog.models()))
+                .onErrorResume(e -> {
+                    log.error("Error fetching models: {}", e.getMessage());
+                    return Mono.just(ResponseEntity.internalServerError().build());
+                });
+    }
+
+    @GetMapping("/models/catalog")
+    public Mono<ResponseEntity<ModelCatalog>> getModelCatalog() {
+        return modelRegistry.current()
+                .timeout(Duration.ofSeconds(30))
+                .map(catalog -> ResponseEntity.ok(catalog))
+                .onErrorResume(e -> {
+                    log.error("Error fetching models: {}", e.getMessage());
+                    return Mono.just(ResponseEntity.internalServerError().build());
+                });
     }
 
     @PostMapping("/generate")
-    public ResponseEntity<ClilResponse> generateLessonMaterial(
+    public Mono<ResponseEntity<ClilResponse>> generateLessonMaterial(
             @RequestBody MaterialRequest request,
             @AuthenticationPrincipal User user) {
-        try {
-            // Inject userId server-side when RAG context is requested
-            if (Boolean.TRUE.equals(request.getUseDocumentContext()) && user != null) {
-                request.setUserId(user.getId().toString());
-                if (request.getContextSubject() == null || request.getContextSubject().isBlank()) {
-                    request.setContextSubject(request.getSubject());
-                }
-            }
-
-            ClilResponse response = ragProxyService.generateMaterial(request)
-                    .block(Duration.ofSeconds(180));
-            return ResponseEntity.ok(response);
-        } catch (Exception e) {
-            log.error("Error generating material: {}", e.getMessage());
-            return ResponseEntity.internalServerError()
-                    .body(ClilResponse.builder()
-                            .formattedResponse("<div class='error'>Failed to generate content</div>")
+        Long userId = user != null ? user.getId() : null;
+        request.applyDocumentContext(userId);
+
+        return admissionService.admit(AdmissionService.Operation.GENERATE, userId,
+                        () -> ragProxyService.generateMaterial(request))
+                .timeout(Duration.ofSeconds(180))
+                .map(response -> ResponseEntity.ok(response))
+                .onErrorResume(AdmissionRejectedException.class, e -> {
+                    log.warn("Generation rejected for user {}: {}", userId, e.getMessage());
+                    return Mono.just(ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                            .header(HttpHeaders.RETRY_AFTER, String.valueOf(e.getRetryAfter().toSeconds()))
+                            .body(ClilResponse.builder()
+                                    .formattedResponse("<div class='error'>Too many generation requests, please try again shortly</div>")
+                                    .build()));
+                })
+                .onErrorResume(e -> {
+                    log.error("Error generating material: {}", e.getMessage());
+                    return Mono.just(ResponseEntity.internalServerError()
+                            .body(ClilResponse.builder()
+                                    .formattedResponse("<div class='error'>Failed to generate content</div>")
+                                    .build()));
+                });
+    }
+
+    /**
+     * Streaming variant of {@link #generateLessonMaterial}: relays "chunk" events
+     * while the LLM is writing, followed by "sources" and "done". A rejected
+     * admission is reported as an "error" event carrying "retryAfter" seconds.
+     */
+    @PostMapping(value = "/generate/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public Flux<ServerSentEvent<Map<String, Object>>> streamLessonMaterial(
+            @RequestBody MaterialRequest request,
+            @AuthenticationPrincipal User user) {
+        Long userId = user != null ? user.getId() : null;
+        request.applyDocumentContext(userId);
+
+        return admissionService.admitMany(AdmissionService.Operation.GENERATE, userId,
+                        () -> ragProxyService.streamMaterial(request))
+                .onErrorResume(AdmissionRejectedException.class, e -> {
+                    log.warn("Streaming generation rejected for user {}: {}", userId, e.getMessage());
+                    return Flux.just(ServerSentEvent.<Map<String, Object>>builder()
+                            .event("error")
+                            .data(Map.of(
+                                    "formattedResponse", "<div class='error'>Too many generation requests, please try again shortly</div>",
+                                    "retryAfter", e.getRetryAfter().toSeconds()))
                             .build());
-        }
+                });
     }
 
     @GetMapping("/materials")
-    public ResponseEntity<List<LessonMaterialDto>> getAllMaterials(
+    public ResponseEntity<?> getMaterials(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit,
+            @RequestParam(name = "tag", required = false) List<String> tags,
+            @RequestParam(defaultValue = "all") String tagMode,
+            @RequestParam(name = "type", required = false) String materialType,
+            @RequestParam(required = false) String subject,
+            @RequestParam(required = false) String languageLevel,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime modifiedSince,
             @AuthenticationPrincipal User user) {
-        List<LessonMaterialDto> materials = materialService.getAllMaterials(user);
-        return ResponseEntity.ok(materials);
+        if (!tagMode.equals("all") && !tagMode.equals("any")) {
+            return ResponseEntity.badRequest().body(Map.of("error", "tagMode must be 'all' or 'any'"));
+        }
+        MaterialFilter filter = new MaterialFilter(materialType, subject, languageLevel, modifiedSince);
+        try {
+            return ResponseEntity.ok(materialService.getMaterials(user, cursor, limit, tags, tagMode.equals("all"), filter));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    @GetMapping("/materials/stats")
+    public ResponseEntity<MaterialStats> getMaterialStats(@AuthenticationPrincipal User user) {
+        return ResponseEntity.ok(materialService.getMaterialStats(user));
+    }
+
+    @GetMapping("/materials/search")
+    public ResponseEntity<?> searchMaterials(
+            @RequestParam("q") String query,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(required = false) Integer limit,
+            @AuthenticationPrincipal User user) {
+        try {
+            return ResponseEntity.ok(materialService.searchMaterials(user, query, page, limit));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    // Written on the export pool while the rows are read; nothing is buffered.
+    // Returns the WebAsyncTask (own timeout) or an error response.
+    @GetMapping("/materials/export")
+    public Object exportMaterials(
+            @RequestParam(defaultValue = "ndjson") String format,
+            HttpServletResponse response,
+            @AuthenticationPrincipal User user) {
+        Optional<MaterialExportFormat> exportFormat = MaterialExportFormat.fromParam(format);
+        if (exportFormat.isEmpty()) {
+            return ResponseEntity.badRequest().body(Map.of("error", "format must be 'ndjson' or 'zip'"));
+        }
+
+        WebAsyncTask<Void> export;
+        try {
+            export = materialExportTasks.start(user, exportFormat.get(), response::getOutputStream);
+        } catch (AdmissionRejectedException e) {
+            return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                    .header(HttpHeaders.RETRY_AFTER, String.valueOf(e.getRetryAfter().toSeconds()))
+                    .body(Map.of("error", e.getMessage()));
+        }
+        response.setContentType(exportFormat.get().getContentType());
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+                .filename("materials." + exportFormat.get().getExtension())
+                .build()
+                .toString());
+        return export;
     }
 
     @GetMapping("/materials/{id}")
@@ -94,6 +223,39 @@ public class ClilController {
         }
     }
 
+    @PostMapping("/materials/import")
+    public ResponseEntity<?> importMaterials(
+            @RequestBody List<MaterialCreateRequest> requests,
+            @AuthenticationPrincipal User user) {
+        try {
+            return ResponseEntity.ok(materialService.importMaterials(requests, user));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    @PatchMapping("/materials/bulk")
+    public ResponseEntity<?> updateMaterials(
+            @RequestBody MaterialBulkUpdateRequest request,
+            @AuthenticationPrincipal User user) {
+        try {
+            return ResponseEntity.ok(materialService.updateMaterials(request, user));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    @PostMapping("/materials/bulk-delete")
+    public ResponseEntity<?> deleteMaterials(
+            @RequestBody List<Long> ids,
+            @AuthenticationPrincipal User user) {
+        try {
+            return ResponseEntity.ok(materialService.deleteMaterials(ids, user));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+
     @PutMapping("/materials/{id}")
     public ResponseEntity<LessonMaterialDto> updateMaterial(
             @PathVariable Long id,
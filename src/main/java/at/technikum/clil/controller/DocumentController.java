@@ -1,12 +1,21 @@
 package at.technikum.clil.controller;
 
 import at.technikum.clil.model.User;
+import at.technikum.clil.service.AdmissionRejectedException;
+import at.technikum.clil.service.AdmissionService;
 import at.technikum.clil.service.DocumentProxyService;
+import at.technikum.clil.service.UploadSourceException;
+import jakarta.servlet.http.HttpServletRequest;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.util.StringUtils;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
+import reactor.core.publisher.Mono;
 
 import java.time.Duration;
 import java.util.List;
@@ -18,64 +27,101 @@ import java.util.Map;
 public class DocumentController {
 
     private final DocumentProxyService documentProxyService;
+    private final AdmissionService admissionService;
 
-    public DocumentController(DocumentProxyService documentProxyService) {
+    public DocumentController(DocumentProxyService documentProxyService, AdmissionService admissionService) {
         this.documentProxyService = documentProxyService;
+        this.admissionService = admissionService;
     }
 
     @PostMapping("/documents/upload")
-    public ResponseEntity<Map<String, Object>> uploadDocument(
+    public Mono<ResponseEntity<Map<String, Object>>> uploadDocument(
             @RequestParam("file") MultipartFile file,
             @RequestParam(value = "subject", required = false, defaultValue = "") String subject,
             @AuthenticationPrincipal User user) {
         log.info("Document upload request — file: {}, user: {}, subject: {}",
                 file.getOriginalFilename(), user.getUsername(), subject);
 
-        try {
-            Map<String, Object> result = documentProxyService.uploadDocument(file, user.getId(), subject)
-                    .block(Duration.ofSeconds(120));
-            return ResponseEntity.ok(result);
-        } catch (Exception e) {
-            log.error("Document upload failed: {}", e.getMessage());
-            return ResponseEntity.internalServerError()
-                    .body(Map.of("error", "Document upload failed"));
+        return admissionService.admit(AdmissionService.Operation.INGEST, user.getId(),
+                        () -> documentProxyService.uploadDocument(file, user.getId(), subject))
+                .timeout(Duration.ofSeconds(120))
+                .map(result -> ResponseEntity.ok(result))
+                .onErrorResume(AdmissionRejectedException.class, e -> Mono.just(tooManyRequests(e)))
+                .onErrorResume(e -> {
+                    log.error("Document upload failed: {}", e.getMessage());
+                    return Mono.just(ResponseEntity.internalServerError()
+                            .body(Map.of("error", "Document upload failed")));
+                });
+    }
+
+    /**
+     * Upload without multipart parsing: the file is the raw request body and is streamed to the
+     * RAG service while it arrives, instead of being buffered by the servlet first.
+     */
+    @PostMapping(value = "/documents/upload/stream", consumes = MediaType.APPLICATION_OCTET_STREAM_VALUE)
+    public Mono<ResponseEntity<Map<String, Object>>> uploadDocumentStream(
+            @RequestParam("filename") String filename,
+            @RequestParam(value = "subject", required = false, defaultValue = "") String subject,
+            HttpServletRequest request,
+            @AuthenticationPrincipal User user) {
+        String name = StringUtils.getFilename(StringUtils.cleanPath(filename));
+        if (name == null || name.isBlank()) {
+            return Mono.just(ResponseEntity.badRequest().body(Map.of("error", "Invalid filename")));
         }
+        if (!documentProxyService.isWithinStreamLimit(request.getContentLengthLong())) {
+            return Mono.just(ResponseEntity.status(HttpStatus.PAYLOAD_TOO_LARGE)
+                    .body(Map.of("error", "File too large")));
+        }
+        log.info("Streaming document upload request — file: {}, size: {}, user: {}, subject: {}",
+                name, request.getContentLengthLong(), user.getUsername(), subject);
+
+        return admissionService.admit(AdmissionService.Operation.INGEST, user.getId(),
+                        () -> documentProxyService.uploadDocumentStream(request::getInputStream, name,
+                                user.getId(), subject))
+                .timeout(Duration.ofSeconds(120))
+                .map(result -> ResponseEntity.ok(result))
+                .onErrorResume(AdmissionRejectedException.class, e -> Mono.just(tooManyRequests(e)))
+                .onErrorResume(e -> UploadSourceException.find(e) != null,
+                        e -> Mono.just(uploadRejected(UploadSourceException.find(e))))
+                .onErrorResume(e -> {
+                    log.error("Document upload failed: {}", e.getMessage());
+                    return Mono.just(ResponseEntity.internalServerError()
+                            .body(Map.of("error", "Document upload failed")));
+                });
     }
 
     @GetMapping("/documents")
-    public ResponseEntity<List<Map<String, Object>>> listDocuments(
+    public Mono<ResponseEntity<List<Map<String, Object>>>> listDocuments(
             @AuthenticationPrincipal User user) {
-        try {
-            List<Map<String, Object>> docs = documentProxyService.listDocuments(user.getId())
-                    .block(Duration.ofSeconds(30));
-            return ResponseEntity.ok(docs);
-        } catch (Exception e) {
-            log.error("Error listing documents: {}", e.getMessage());
-            return ResponseEntity.internalServerError()
-                    .body(List.of());
-        }
+        return documentProxyService.listDocuments(user.getId())
+                .timeout(Duration.ofSeconds(30))
+                .map(docs -> ResponseEntity.ok(docs))
+                .onErrorResume(e -> {
+                    log.error("Error listing documents: {}", e.getMessage());
+                    return Mono.just(ResponseEntity.internalServerError()
+                            .body(List.of()));
+                });
     }
 
     @DeleteMapping("/documents")
-    public ResponseEntity<Map<String, Object>> deleteDocuments(
+    public Mono<ResponseEntity<Map<String, Object>>> deleteDocuments(
             @RequestBody Map<String, List<String>> body,
             @AuthenticationPrincipal User user) {
         List<String> docIds = body.get("docIds");
         log.info("Document delete request — docIds: {}, user: {}", docIds, user.getUsername());
 
-        try {
-            Map<String, Object> result = documentProxyService.deleteDocuments(docIds)
-                    .block(Duration.ofSeconds(30));
-            return ResponseEntity.ok(result);
-        } catch (Exception e) {
-            log.error("Document deletion failed: {}", e.getMessage());
-            return ResponseEntity.internalServerError()
-                    .body(Map.of("error", "Document deletion failed"));
-        }
+        return documentProxyService.deleteDocuments(docIds)
+                .timeout(Duration.ofSeconds(30))
+                .map(result -> ResponseEntity.ok(result))
+                .onErrorResume(e -> {
+                    log.error("Document deletion failed: {}", e.getMessage());
+                    return Mono.just(ResponseEntity.internalServerError()
+                            .body(Map.of("error", "Document deletion failed")));
+                });
     }
 
     @PostMapping("/query")
-    public ResponseEntity<Map<String, Object>> queryDocuments(
+    public Mono<ResponseEntity<Map<String, Object>>> queryDocuments(
             @RequestBody Map<String, Object> body,
             @AuthenticationPrincipal User user) {
         String query = (String) body.get("query");
@@ -84,14 +130,28 @@ public class DocumentController {
 
         log.info("RAG query request — user: {}, topK: {}, subject: {}", user.getUsername(), topK, subject);
 
-        try {
-            Map<String, Object> result = documentProxyService.queryDocuments(query, user.getId(), topK, subject)
-                    .block(Duration.ofSeconds(120));
-            return ResponseEntity.ok(result);
-        } catch (Exception e) {
-            log.error("Query failed: {}", e.getMessage());
-            return ResponseEntity.internalServerError()
-                    .body(Map.of("error", "Query failed"));
-        }
+        return admissionService.admit(AdmissionService.Operation.QUERY, user.getId(),
+                        () -> documentProxyService.queryDocuments(query, user.getId(), topK, subject))
+                .timeout(Duration.ofSeconds(120))
+                .map(result -> ResponseEntity.ok(result))
+                .onErrorResume(AdmissionRejectedException.class, e -> Mono.just(tooManyRequests(e)))
+                .onErrorResume(e -> {
+                    log.error("Query failed: {}", e.getMessage());
+                    return Mono.just(ResponseEntity.internalServerError()
+                            .body(Map.of("error", "Query failed")));
+                });
+    }
+
+    private ResponseEntity<Map<String, Object>> uploadRejected(UploadSourceException e) {
+        log.warn("Streaming document upload rejected: {}", e.getMessage());
+        HttpStatus status = e.isTooLarge() ? HttpStatus.PAYLOAD_TOO_LARGE : HttpStatus.BAD_REQUEST;
+        return ResponseEntity.status(status).body(Map.of("error", e.getMessage()));
+    }
+
+    private ResponseEntity<Map<String, Object>> tooManyRequests(AdmissionRejectedException e) {
+        log.warn("Document request rejected: {}", e.getMessage());
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(e.getRetryAfter().toSeconds()))
+                .body(Map.of("error", e.getMessage()));
     }
 }
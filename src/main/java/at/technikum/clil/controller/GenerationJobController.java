@@ -0,0 +1,49 @@
+package at.technikum.clil.controller;
+
+import at.technikum.clil.dto.GenerationJobDto;
+import at.technikum.clil.dto.MaterialRequest;
+import at.technikum.clil.model.User;
+import at.technikum.clil.service.GenerationJobService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.Map;
+import java.util.concurrent.RejectedExecutionException;
+
+@Slf4j
+@RestController
+@RequestMapping("/api/v1/clil/generate/jobs")
+@RequiredArgsConstructor
+public class GenerationJobController {
+
+    private final GenerationJobService generationJobService;
+
+    @PostMapping
+    public ResponseEntity<?> submitJob(
+            @RequestBody MaterialRequest request,
+            @RequestParam(value = "autoSave", defaultValue = "false") boolean autoSave,
+            @AuthenticationPrincipal User user) {
+        request.applyDocumentContext(user.getId());
+
+        try {
+            GenerationJobDto job = generationJobService.submit(request, autoSave, user);
+            return ResponseEntity.status(HttpStatus.ACCEPTED).body(job);
+        } catch (RejectedExecutionException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .body(Map.of("error", "Generation queue is full"));
+        }
+    }
+
+    @GetMapping("/{id}")
+    public ResponseEntity<GenerationJobDto> getJob(
+            @PathVariable Long id,
+            @AuthenticationPrincipal User user) {
+        return generationJobService.getJob(id, user)
+                .map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build());
+    }
+}
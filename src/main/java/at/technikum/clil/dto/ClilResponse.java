@@ -1,5 +1,6 @@
 package at.technikum.clil.dto;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
@@ -18,4 +19,12 @@ public class ClilResponse {
 
     @Builder.Default
     private List<Map<String, Object>> sources = new ArrayList<>();
+
+    /**
+     * True if the RAG service (or the proxy fallback) returned the error HTML instead of material.
+     */
+    @JsonIgnore
+    public boolean isError() {
+        return formattedResponse == null || formattedResponse.startsWith("<div class='error'>");
+    }
 }
\ No newline at end of file
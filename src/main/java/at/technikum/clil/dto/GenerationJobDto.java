@@ -0,0 +1,33 @@
+package at.technikum.clil.dto;
+
+import at.technikum.clil.model.GenerationJob;
+
+import java.time.Duration;
+
+public record GenerationJobDto(
+        Long id,
+        String status,
+        ClilResponse result,
+        Long materialId,
+        String error,
+        String createdAt,
+        String startedAt,
+        String finishedAt,
+        Long durationMs
+) {
+    public static GenerationJobDto fromEntity(GenerationJob job) {
+        return new GenerationJobDto(
+                job.getId(),
+                job.getStatus().name(),
+                job.getResult(),
+                job.getMaterialId(),
+                job.getErrorMessage(),
+                job.getCreatedAt().toString(),
+                job.getStartedAt() != null ? job.getStartedAt().toString() : null,
+                job.getFinishedAt() != null ? job.getFinishedAt().toString() : null,
+                job.getStartedAt() != null && job.getFinishedAt() != null
+                        ? Duration.between(job.getStartedAt(), job.getFinishedAt()).toMillis()
+                        : null
+        );
+    }
+}
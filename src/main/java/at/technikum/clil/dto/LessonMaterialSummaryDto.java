@@ -0,0 +1,31 @@
+package at.technikum.clil.dto;
+
+import at.technikum.clil.repository.MaterialSummary;
+
+import java.util.List;
+
+public record LessonMaterialSummaryDto(
+        Long id,
+        String materialType,
+        String topic,
+        String subject,
+        String languageLevel,
+        Integer vocabPercentage,
+        List<String> tags,
+        String createdAt,
+        String modifiedAt
+) {
+    public static LessonMaterialSummaryDto fromProjection(MaterialSummary summary, List<String> tags) {
+        return new LessonMaterialSummaryDto(
+                summary.getId(),
+                summary.getMaterialType(),
+                summary.getTopic(),
+                summary.getSubject(),
+                summary.getLanguageLevel(),
+                summary.getVocabPercentage(),
+                tags,
+                summary.getCreatedAt().toString(),
+                summary.getModifiedAt() != null ? summary.getModifiedAt().toString() : summary.getCreatedAt().toString()
+        );
+    }
+}
@@ -0,0 +1,15 @@
+package at.technikum.clil.dto;
+
+import java.util.Collection;
+
+/**
+ * Outcome of a bulk delete or update: how many of the requested materials were owned and changed.
+ */
+public record MaterialBulkResult(
+        int requested,
+        int affected
+) {
+    public static MaterialBulkResult of(Collection<Long> ids, int affected) {
+        return new MaterialBulkResult(ids.size(), affected);
+    }
+}
@@ -0,0 +1,18 @@
+package at.technikum.clil.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class MaterialBulkUpdateRequest {
+
+    private List<Long> ids;
+    private String subject;
+    private List<String> addTags;
+    private List<String> removeTags;
+}
@@ -0,0 +1,44 @@
+package at.technikum.clil.dto;
+
+import at.technikum.clil.model.LessonMaterial;
+
+import java.util.List;
+
+/**
+ * One line of the NDJSON export: all fields of a material, including both bodies.
+ */
+public record MaterialExportDto(
+        Long id,
+        String materialType,
+        String topic,
+        String content,
+        String formattedHtml,
+        String subject,
+        String languageLevel,
+        Integer vocabPercentage,
+        String contentFocus,
+        Boolean includeVocabList,
+        String description,
+        List<String> tags,
+        String createdAt,
+        String modifiedAt
+) {
+    public static MaterialExportDto fromEntity(LessonMaterial entity, List<String> tags) {
+        return new MaterialExportDto(
+                entity.getId(),
+                entity.getMaterialType(),
+                entity.getTopic(),
+                entity.getAiResponse(),
+                entity.getFormattedHtml(),
+                entity.getSubject(),
+                entity.getLanguageLevel(),
+                entity.getVocabPercentage(),
+                entity.getContentFocus(),
+                entity.getIncludeVocabList(),
+                entity.getDescription(),
+                tags,
+                entity.getCreatedAt().toString(),
+                entity.getModifiedAt() != null ? entity.getModifiedAt().toString() : null
+        );
+    }
+}
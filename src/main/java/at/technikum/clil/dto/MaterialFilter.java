@@ -0,0 +1,26 @@
+package at.technikum.clil.dto;
+
+import java.time.LocalDateTime;
+
+/**
+ * Optional filters of the material listing besides tags; null (or blank) fields are not applied.
+ * {@code modifiedSince} compares the last change, or the creation time if never edited.
+ */
+public record MaterialFilter(
+        String materialType,
+        String subject,
+        String languageLevel,
+        LocalDateTime modifiedSince
+) {
+    public static final MaterialFilter NONE = new MaterialFilter(null, null, null, null);
+
+    public MaterialFilter {
+        materialType = blankToNull(materialType);
+        subject = blankToNull(subject);
+        languageLevel = blankToNull(languageLevel);
+    }
+
+    private static String blankToNull(String value) {
+        return value == null || value.isBlank() ? null : value.trim();
+    }
+}
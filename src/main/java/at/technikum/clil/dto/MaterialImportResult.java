@@ -0,0 +1,15 @@
+package at.technikum.clil.dto;
+
+import java.util.List;
+
+/**
+ * Ids of the materials created by one bulk import, in request order.
+ */
+public record MaterialImportResult(
+        int imported,
+        List<Long> ids
+) {
+    public static MaterialImportResult of(List<Long> ids) {
+        return new MaterialImportResult(ids.size(), ids);
+    }
+}
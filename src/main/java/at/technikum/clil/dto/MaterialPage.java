@@ -0,0 +1,18 @@
+package at.technikum.clil.dto;
+
+import java.util.List;
+
+/**
+ * One page of a keyset-paginated listing. {@code nextCursor} is null on the last page.
+ * {@code total} counts every matching item; it is only computed for the first page
+ * (no cursor) and null on the pages after it.
+ */
+public record MaterialPage<T>(
+        List<T> items,
+        String nextCursor,
+        Long total
+) {
+    public boolean hasMore() {
+        return nextCursor != null;
+    }
+}
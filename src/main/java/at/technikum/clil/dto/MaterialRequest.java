@@ -1,5 +1,6 @@
 package at.technikum.clil.dto;
 
+import com.fasterxml.jackson.annotation.JsonProperty;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
@@ -22,4 +23,20 @@ public class MaterialRequest {
     private String userId;
     private String contextSubject;
     private String citationStyle;
+
+    // Per-request opt-out of the generation cache; not forwarded to the RAG service
+    @JsonProperty(access = JsonProperty.Access.WRITE_ONLY)
+    private Boolean skipCache;
+
+    /**
+     * Injects the userId server-side when RAG context is requested.
+     */
+    public void applyDocumentContext(Long ownerId) {
+        if (Boolean.TRUE.equals(useDocumentContext) && ownerId != null) {
+            userId = ownerId.toString();
+            if (contextSubject == null || contextSubject.isBlank()) {
+                contextSubject = subject;
+            }
+        }
+    }
 }
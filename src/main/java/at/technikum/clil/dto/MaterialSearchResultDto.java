@@ -0,0 +1,7 @@
+package at.technikum.clil.dto;
+
+public record MaterialSearchResultDto(
+        LessonMaterialSummaryDto material,
+        double rank
+) {
+}
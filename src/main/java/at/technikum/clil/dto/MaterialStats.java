@@ -0,0 +1,12 @@
+package at.technikum.clil.dto;
+
+import java.util.Map;
+
+/**
+ * Size of a user's whole library, in total and per material type.
+ */
+public record MaterialStats(
+        long total,
+        Map<String, Long> byType
+) {
+}
@@ -0,0 +1,11 @@
+package at.technikum.clil.dto;
+
+import java.time.Instant;
+import java.util.List;
+
+public record ModelCatalog(
+        String provider,
+        List<String> models,
+        Instant refreshedAt
+) {
+}
@@ -0,0 +1,14 @@
+package at.technikum.clil.dto;
+
+import java.util.List;
+
+/**
+ * One page of ranked search results ({@code page} is zero-based).
+ */
+public record SearchPage<T>(
+        List<T> items,
+        int page,
+        int size,
+        boolean hasMore
+) {
+}
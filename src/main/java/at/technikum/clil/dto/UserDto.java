@@ -1,8 +1,9 @@
 package at.technikum.clil.dto;
 
 import at.technikum.clil.model.Role;
-import at.technikum.clil.model.User;
+import at.technikum.clil.repository.UserSummary;
 
+import java.util.Collection;
 import java.util.Set;
 import java.util.stream.Collectors;
 
@@ -13,20 +14,22 @@ public record UserDto(
         Set<String> roles,
         String createdAt,
         long materialCount,
+        long subjectCount,
         boolean approved
 ) {
-    public static UserDto fromEntity(User user, long materialCount) {
-        Set<String> roleNames = user.getRoles().stream()
+    public static UserDto fromSummary(UserSummary summary, Collection<Role> roles) {
+        Set<String> roleNames = roles.stream()
                 .map(Role::name)
                 .collect(Collectors.toSet());
         return new UserDto(
-                user.getId(),
-                user.getUsername(),
-                user.getEmail(),
+                summary.getId(),
+                summary.getUsername(),
+                summary.getEmail(),
                 roleNames,
-                user.getCreatedAt() != null ? user.getCreatedAt().toString() : null,
-                materialCount,
-                user.isApproved()
+                summary.getCreatedAt() != null ? summary.getCreatedAt().toString() : null,
+                summary.getMaterialCount(),
+                summary.getSubjectCount(),
+                summary.getApproved()
         );
     }
 }
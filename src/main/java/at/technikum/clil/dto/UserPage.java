@@ -0,0 +1,15 @@
+package at.technikum.clil.dto;
+
+import java.util.List;
+
+/**
+ * One page of the admin user listing ({@code page} is zero-based).
+ */
+public record UserPage(
+        List<UserDto> items,
+        int page,
+        int size,
+        long totalElements,
+        int totalPages
+) {
+}
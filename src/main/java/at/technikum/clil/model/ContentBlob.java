@@ -0,0 +1,118 @@
+package at.technikum.clil.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+import org.hibernate.annotations.BatchSize;
+import org.hibernate.annotations.Immutable;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDateTime;
+import java.util.HexFormat;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Deflate-compressed material body, stored once per distinct content and keyed by the
+ * SHA-256 of the uncompressed text. Rows are immutable; the text is inflated on first access.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Immutable
+@BatchSize(size = 100)
+@Table(name = "content_blobs")
+public class ContentBlob {
+
+    @Id
+    @Column(length = 64)
+    private String hash;
+
+    @Column(nullable = false)
+    private byte[] data;
+
+    @Column(nullable = false)
+    private Integer originalSize;
+
+    @Builder.Default
+    @Column(updatable = false)
+    private LocalDateTime createdAt = LocalDateTime.now();
+
+    @Transient
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
+    private String text;
+
+    // Blobs written by db.migration.V4 use this format too (frozen copy there); stay able to read them
+    public static ContentBlob of(String text) {
+        byte[] raw = text.getBytes(StandardCharsets.UTF_8);
+        return ContentBlob.builder()
+                .hash(hash(raw))
+                .data(deflate(raw))
+                .originalSize(raw.length)
+                .text(text)
+                .build();
+    }
+
+    public String getText() {
+        if (text == null && data != null) {
+            text = new String(inflate(data, originalSize), StandardCharsets.UTF_8);
+        }
+        return text;
+    }
+
+    private static String hash(byte[] raw) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(raw));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    private static byte[] deflate(byte[] raw) {
+        Deflater deflater = new Deflater(Deflater.DEFAULT_COMPRESSION);
+        try {
+            deflater.setInput(raw);
+            deflater.finish();
+            ByteArrayOutputStream out = new ByteArrayOutputStream(Math.max(64, raw.length / 4));
+            byte[] buffer = new byte[8192];
+            while (!deflater.finished()) {
+                out.write(buffer, 0, deflater.deflate(buffer));
+            }
+            return out.toByteArray();
+        } finally {
+            deflater.end();
+        }
+    }
+
+    private static byte[] inflate(byte[] compressed, int originalSize) {
+        Inflater inflater = new Inflater();
+        try {
+            inflater.setInput(compressed);
+            byte[] raw = new byte[originalSize];
+            int read = 0;
+            while (read < originalSize && !inflater.finished()) {
+                int n = inflater.inflate(raw, read, originalSize - read);
+                if (n == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                    break;
+                }
+                read += n;
+            }
+            if (read != originalSize) {
+                throw new UncheckedIOException(new IOException("Truncated content blob"));
+            }
+            return raw;
+        } catch (DataFormatException e) {
+            throw new UncheckedIOException(new IOException("Corrupt content blob", e));
+        } finally {
+            inflater.end();
+        }
+    }
+}
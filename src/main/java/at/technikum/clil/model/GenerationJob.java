@@ -0,0 +1,64 @@
+package at.technikum.clil.model;
+
+import at.technikum.clil.dto.ClilResponse;
+import at.technikum.clil.dto.MaterialRequest;
+import jakarta.persistence.*;
+import lombok.*;
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.type.SqlTypes;
+
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(name = "generation_jobs")
+public class GenerationJob {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "generation_jobs_seq")
+    @SequenceGenerator(name = "generation_jobs_seq", sequenceName = "generation_jobs_seq", allocationSize = 50)
+    private Long id;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "owner_id", nullable = false)
+    private User owner;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    private JobStatus status;
+
+    @JdbcTypeCode(SqlTypes.JSON)
+    @Column(nullable = false)
+    private MaterialRequest request;
+
+    @JdbcTypeCode(SqlTypes.JSON)
+    private ClilResponse result;
+
+    // Kept outside of request: skipCache is write-only in MaterialRequest's JSON
+    @Builder.Default
+    @Column(nullable = false)
+    private boolean skipCache = false;
+
+    @Builder.Default
+    @Column(nullable = false)
+    private boolean autoSave = false;
+
+    @Column
+    private Long materialId;  // LessonMaterial created from the result when autoSave is set
+
+    @Column(columnDefinition = "TEXT")
+    private String errorMessage;
+
+    @Builder.Default
+    @Column(updatable = false)
+    private LocalDateTime createdAt = LocalDateTime.now();
+
+    @Column
+    private LocalDateTime startedAt;
+
+    @Column
+    private LocalDateTime finishedAt;
+}
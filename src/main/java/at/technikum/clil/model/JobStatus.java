@@ -0,0 +1,8 @@
+package at.technikum.clil.model;
+
+public enum JobStatus {
+    QUEUED,
+    RUNNING,
+    SUCCEEDED,
+    FAILED
+}
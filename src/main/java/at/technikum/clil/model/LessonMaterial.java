@@ -2,6 +2,8 @@ package at.technikum.clil.model;
 
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.BatchSize;
+
 import java.time.LocalDateTime;
 import java.util.List;
 
@@ -10,10 +12,13 @@ import java.util.List;
 @NoArgsConstructor
 @AllArgsConstructor
 @Entity
-@Table(name = "lesson_materials")
+@Table(name = "lesson_materials")  // indexes: db/migration/V5__query_indexes.sql
 public class LessonMaterial {
+    // Pooled sequence: one nextval reserves 50 ids, so inserts can be sent as JDBC batches
+    // (IDENTITY needs a round-trip per row to learn the id)
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "lesson_materials_seq")
+    @SequenceGenerator(name = "lesson_materials_seq", sequenceName = "lesson_materials_seq", allocationSize = 50)
     private Long id;
 
     @ManyToOne(fetch = FetchType.LAZY)
@@ -26,11 +31,15 @@ public class LessonMaterial {
     @Column(nullable = false)
     private String topic;  // e.g., "Object-Oriented Programming"
 
-    @Column(columnDefinition = "TEXT", nullable = false)
-    private String aiResponse;
+    // Bodies live in content_blobs (compressed, de-duplicated by hash) and are only
+    // loaded and inflated when getAiResponse()/getFormattedHtml() is called
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "body_hash")
+    private ContentBlob body;
 
-    @Column(columnDefinition = "TEXT")
-    private String formattedHtml;
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "formatted_hash")
+    private ContentBlob formattedBody;
 
     @Column
     private String subject;
@@ -50,9 +59,11 @@ public class LessonMaterial {
     @Column(columnDefinition = "TEXT")
     private String description;
 
+    // Loaded for up to 100 materials per query when a list of entities is mapped to DTOs
     @ElementCollection
     @CollectionTable(name = "material_tags", joinColumns = @JoinColumn(name = "material_id"))
     @Column(name = "tag")
+    @BatchSize(size = 100)
     private List<String> tags;
 
     @Builder.Default
@@ -61,4 +72,12 @@ public class LessonMaterial {
 
     @Column
     private LocalDateTime modifiedAt;
-}
\ No newline at end of file
+
+    public String getAiResponse() {
+        return body != null ? body.getText() : null;
+    }
+
+    public String getFormattedHtml() {
+        return formattedBody != null ? formattedBody.getText() : getAiResponse();
+    }
+}
@@ -20,7 +20,8 @@ import java.util.stream.Collectors;
 public class User implements UserDetails {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "users_seq")
+    @SequenceGenerator(name = "users_seq", sequenceName = "users_seq", allocationSize = 50)
     private Long id;
 
     @Column(nullable = false, unique = true, length = 50)
@@ -50,6 +51,11 @@ public class User implements UserDetails {
     @Column(nullable = false)
     private boolean approved = false;
 
+    // Carried in access tokens; incremented to revoke every token issued before
+    @Builder.Default
+    @Column(nullable = false)
+    private int tokenVersion = 0;
+
     @Override
     public Collection<? extends GrantedAuthority> getAuthorities() {
         return roles.stream()
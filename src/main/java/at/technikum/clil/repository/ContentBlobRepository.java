@@ -0,0 +1,46 @@
+package at.technikum.clil.repository;
+
+import at.technikum.clil.model.ContentBlob;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+
+@Repository
+public interface ContentBlobRepository extends JpaRepository<ContentBlob, String> {
+
+    // Concurrent saves of the same content race on the primary key; the loser only refreshes
+    // created_at, like touch. Also executed as a JDBC batch by ContentStore.storeAll.
+    String INSERT_OR_TOUCH = """
+            INSERT INTO content_blobs (hash, data, original_size, created_at)
+            VALUES (:hash, :data, :originalSize, :createdAt)
+            ON CONFLICT (hash) DO UPDATE SET created_at = EXCLUDED.created_at
+            """;
+
+    @Modifying
+    @Query(nativeQuery = true, value = INSERT_OR_TOUCH)
+    void insertOrTouch(@Param("hash") String hash,
+                       @Param("data") byte[] data,
+                       @Param("originalSize") int originalSize,
+                       @Param("createdAt") LocalDateTime createdAt);
+
+    // Reuse of an existing blob: refreshing created_at puts it back into the cleanup's grace
+    // period, and the row lock makes a concurrent cleanup wait and then skip it
+    @Modifying
+    @Query(nativeQuery = true, value = "UPDATE content_blobs SET created_at = :createdAt WHERE hash = :hash")
+    int touch(@Param("hash") String hash, @Param("createdAt") LocalDateTime createdAt);
+
+    // Blobs no material points to any more. The grace period keeps blobs that were just
+    // stored or reused (see touch) for a material whose transaction has not committed yet.
+    @Modifying
+    @Query(nativeQuery = true, value = """
+            DELETE FROM content_blobs b
+            WHERE b.created_at < :createdBefore
+              AND NOT EXISTS (SELECT 1 FROM lesson_materials m WHERE m.body_hash = b.hash)
+              AND NOT EXISTS (SELECT 1 FROM lesson_materials m WHERE m.formatted_hash = b.hash)
+            """)
+    int deleteUnreferenced(@Param("createdBefore") LocalDateTime createdBefore);
+}
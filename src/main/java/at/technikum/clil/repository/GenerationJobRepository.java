@@ -0,0 +1,21 @@
+package at.technikum.clil.repository;
+
+import at.technikum.clil.model.GenerationJob;
+import at.technikum.clil.model.User;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface GenerationJobRepository extends JpaRepository<GenerationJob, Long> {
+
+    Optional<GenerationJob> findByIdAndOwner(Long id, User owner);
+
+    // Statuses are literals so the partial index idx_generation_jobs_unfinished applies
+    @Query("SELECT j FROM GenerationJob j WHERE j.status IN " +
+            "(at.technikum.clil.model.JobStatus.QUEUED, at.technikum.clil.model.JobStatus.RUNNING)")
+    List<GenerationJob> findUnfinished();
+}
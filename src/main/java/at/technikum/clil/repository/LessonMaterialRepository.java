@@ -2,33 +2,214 @@ package at.technikum.clil.repository;
 
 import at.technikum.clil.model.LessonMaterial;
 import at.technikum.clil.model.User;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.stream.Stream;
 
 @Repository
 public interface LessonMaterialRepository extends JpaRepository<LessonMaterial, Long> {
 
-    List<LessonMaterial> findByMaterialType(String materialType);
+    // Keyset pagination on (created_at, id), served by idx_lesson_materials_owner_created.
+    // Summary projection only: the TEXT bodies are loaded by findById for the detail view.
+    String SUMMARY_SELECT = "SELECT lm.id AS id, lm.materialType AS materialType, lm.topic AS topic, " +
+            "lm.subject AS subject, lm.languageLevel AS languageLevel, lm.vocabPercentage AS vocabPercentage, " +
+            "lm.createdAt AS createdAt, lm.modifiedAt AS modifiedAt " +
+            "FROM LessonMaterial lm ";
+    String OWNED = "WHERE lm.owner = :owner ";
+    String AFTER_CURSOR = "AND (lm.createdAt < :createdAt OR (lm.createdAt = :createdAt AND lm.id < :id)) ";
+    // Materials carrying at least :required of the requested tags (1 = any, all tags = all),
+    // resolved through idx_material_tags_tag
+    String WITH_TAGS = "AND lm.id IN (SELECT x.id FROM LessonMaterial x JOIN x.tags t " +
+            "WHERE x.owner = :owner AND t IN :tags GROUP BY x.id HAVING COUNT(DISTINCT t) >= :required) ";
+    // Optional list filters; a null parameter switches its condition off. The null checks are
+    // bind parameters of their own and need the CAST to be typed. The date filter compares the
+    // last change, which is the creation time for materials never edited.
+    String FILTERED = "AND (CAST(:materialType AS String) IS NULL OR lm.materialType = :materialType) " +
+            "AND (CAST(:subject AS String) IS NULL OR lm.subject = :subject) " +
+            "AND (CAST(:languageLevel AS String) IS NULL OR lm.languageLevel = :languageLevel) " +
+            "AND (CAST(:modifiedSince AS LocalDateTime) IS NULL OR COALESCE(lm.modifiedAt, lm.createdAt) >= :modifiedSince) ";
+    String NEWEST_FIRST = "ORDER BY lm.createdAt DESC, lm.id DESC";
+    String COUNT = "SELECT COUNT(lm) FROM LessonMaterial lm ";
 
-    List<LessonMaterial> findByTopic(String topic);
+    @Query(SUMMARY_SELECT + OWNED + FILTERED + NEWEST_FIRST)
+    List<MaterialSummary> findSummaryPageByOwner(@Param("owner") User owner,
+                                                 @Param("materialType") String materialType,
+                                                 @Param("subject") String subject,
+                                                 @Param("languageLevel") String languageLevel,
+                                                 @Param("modifiedSince") LocalDateTime modifiedSince,
+                                                 Pageable pageable);
 
-    List<LessonMaterial> findByMaterialTypeAndTopic(String materialType, String topic);
+    @Query(SUMMARY_SELECT + OWNED + FILTERED + AFTER_CURSOR + NEWEST_FIRST)
+    List<MaterialSummary> findSummaryPageByOwnerAfter(@Param("owner") User owner,
+                                                      @Param("materialType") String materialType,
+                                                      @Param("subject") String subject,
+                                                      @Param("languageLevel") String languageLevel,
+                                                      @Param("modifiedSince") LocalDateTime modifiedSince,
+                                                      @Param("createdAt") LocalDateTime createdAt,
+                                                      @Param("id") Long id,
+                                                      Pageable pageable);
 
-    @Query("SELECT lm FROM LessonMaterial lm ORDER BY lm.createdAt DESC")
-    List<LessonMaterial> findAllOrderByCreatedAtDesc();
+    @Query(SUMMARY_SELECT + OWNED + FILTERED + WITH_TAGS + NEWEST_FIRST)
+    List<MaterialSummary> findSummaryPageByOwnerAndTags(@Param("owner") User owner,
+                                                        @Param("materialType") String materialType,
+                                                        @Param("subject") String subject,
+                                                        @Param("languageLevel") String languageLevel,
+                                                        @Param("modifiedSince") LocalDateTime modifiedSince,
+                                                        @Param("tags") Collection<String> tags,
+                                                        @Param("required") long required,
+                                                        Pageable pageable);
 
-    @Query("SELECT DISTINCT lm.materialType FROM LessonMaterial lm")
-    List<String> findDistinctMaterialTypes();
+    @Query(SUMMARY_SELECT + OWNED + FILTERED + WITH_TAGS + AFTER_CURSOR + NEWEST_FIRST)
+    List<MaterialSummary> findSummaryPageByOwnerAndTagsAfter(@Param("owner") User owner,
+                                                             @Param("materialType") String materialType,
+                                                             @Param("subject") String subject,
+                                                             @Param("languageLevel") String languageLevel,
+                                                             @Param("modifiedSince") LocalDateTime modifiedSince,
+                                                             @Param("tags") Collection<String> tags,
+                                                             @Param("required") long required,
+                                                             @Param("createdAt") LocalDateTime createdAt,
+                                                             @Param("id") Long id,
+                                                             Pageable pageable);
 
-    @Query("SELECT DISTINCT lm.topic FROM LessonMaterial lm")
-    List<String> findDistinctTopics();
+    // Totals for the first page of a listing, with the same filters as the page queries
+    @Query(COUNT + OWNED + FILTERED)
+    long countByOwner(@Param("owner") User owner,
+                      @Param("materialType") String materialType,
+                      @Param("subject") String subject,
+                      @Param("languageLevel") String languageLevel,
+                      @Param("modifiedSince") LocalDateTime modifiedSince);
 
-    @Query("SELECT lm FROM LessonMaterial lm WHERE lm.owner = :owner ORDER BY lm.createdAt DESC")
-    List<LessonMaterial> findByOwnerOrderByCreatedAtDesc(@Param("owner") User owner);
+    @Query(COUNT + OWNED + FILTERED + WITH_TAGS)
+    long countByOwnerAndTags(@Param("owner") User owner,
+                             @Param("materialType") String materialType,
+                             @Param("subject") String subject,
+                             @Param("languageLevel") String languageLevel,
+                             @Param("modifiedSince") LocalDateTime modifiedSince,
+                             @Param("tags") Collection<String> tags,
+                             @Param("required") long required);
 
-    long countByOwner(User owner);
+    @Query("SELECT lm.materialType AS materialType, COUNT(lm) AS count FROM LessonMaterial lm " +
+            OWNED + "GROUP BY lm.materialType")
+    List<MaterialTypeCount> countByOwnerGroupedByType(@Param("owner") User owner);
+
+    @Query(SUMMARY_SELECT + "WHERE lm.id IN :ids")
+    List<MaterialSummary> findSummariesByIds(@Param("ids") Collection<Long> ids);
+
+    // Full-text search over search_vector: the query is parsed with both the German and the
+    // English configuration, matches are ranked by ts_rank_cd.
+    // Served by idx_lesson_materials_search (GIN) combined with the owner index.
+    @Query(nativeQuery = true, value = """
+            SELECT lm.id AS id, ts_rank_cd(lm.search_vector, q.query) AS rank
+            FROM lesson_materials lm,
+                 (SELECT websearch_to_tsquery('german', :query) || websearch_to_tsquery('english', :query) AS query) q
+            WHERE lm.owner_id = :ownerId AND lm.search_vector @@ q.query
+            ORDER BY rank DESC, lm.id DESC
+            LIMIT :limit OFFSET :offset
+            """)
+    List<MaterialSearchHit> searchByOwner(@Param("ownerId") Long ownerId,
+                                          @Param("query") String query,
+                                          @Param("limit") int limit,
+                                          @Param("offset") long offset);
+
+    // Bodies are stored compressed in content_blobs, so the search vector is computed from the
+    // plain text handed in by the application: German and English stemming, weighted
+    // topic > tags > description > body, HTML tags stripped from the body.
+    // Also executed as a JDBC batch by MaterialService.importMaterials.
+    String UPDATE_SEARCH_VECTOR = """
+            UPDATE lesson_materials SET search_vector =
+                   setweight(to_tsvector('german', coalesce(:topic, '')), 'A')
+                || setweight(to_tsvector('english', coalesce(:topic, '')), 'A')
+                || setweight(to_tsvector('german', coalesce(:tags, '')), 'B')
+                || setweight(to_tsvector('english', coalesce(:tags, '')), 'B')
+                || setweight(to_tsvector('german', coalesce(:description, '')), 'C')
+                || setweight(to_tsvector('english', coalesce(:description, '')), 'C')
+                || setweight(to_tsvector('german', regexp_replace(coalesce(:body, ''), '<[^>]+>', ' ', 'g')), 'D')
+                || setweight(to_tsvector('english', regexp_replace(coalesce(:body, ''), '<[^>]+>', ' ', 'g')), 'D')
+            WHERE id = :id
+            """;
+
+    @Modifying
+    @Query(nativeQuery = true, value = UPDATE_SEARCH_VECTOR)
+    void updateSearchVector(@Param("id") Long id,
+                            @Param("topic") String topic,
+                            @Param("tags") String tags,
+                            @Param("description") String description,
+                            @Param("body") String body);
+
+    // Bulk operations: one owner-scoped statement per change, whatever the number of ids.
+    // Ids that do not exist or belong to another user are skipped; the counts say what was touched.
+    // Tag rows are removed by ON DELETE CASCADE (V7), orphaned bodies by ContentStore's cleanup job.
+    @Modifying
+    @Query(nativeQuery = true, value = "DELETE FROM lesson_materials WHERE owner_id = :ownerId AND id IN (:ids)")
+    int deleteOwned(@Param("ownerId") Long ownerId, @Param("ids") Collection<Long> ids);
+
+    @Modifying
+    @Query("UPDATE LessonMaterial lm SET lm.subject = :subject, lm.modifiedAt = :modifiedAt " +
+            OWNED + "AND lm.id IN :ids")
+    int updateSubjectOwned(@Param("owner") User owner,
+                           @Param("ids") Collection<Long> ids,
+                           @Param("subject") String subject,
+                           @Param("modifiedAt") LocalDateTime modifiedAt);
+
+    @Modifying
+    @Query(nativeQuery = true, value = """
+            DELETE FROM material_tags mt USING lesson_materials lm
+            WHERE mt.material_id = lm.id AND lm.owner_id = :ownerId AND lm.id IN (:ids) AND mt.tag IN (:tags)
+            """)
+    int removeTagsOwned(@Param("ownerId") Long ownerId,
+                        @Param("ids") Collection<Long> ids,
+                        @Param("tags") Collection<String> tags);
+
+    @Modifying
+    @Query(nativeQuery = true, value = """
+            INSERT INTO material_tags (material_id, tag)
+            SELECT lm.id, t.tag FROM lesson_materials lm CROSS JOIN unnest(CAST(:tags AS varchar[])) AS t(tag)
+            WHERE lm.owner_id = :ownerId AND lm.id IN (:ids)
+              AND NOT EXISTS (SELECT 1 FROM material_tags mt WHERE mt.material_id = lm.id AND mt.tag = t.tag)
+            """)
+    int addTagsOwned(@Param("ownerId") Long ownerId,
+                     @Param("ids") Collection<Long> ids,
+                     @Param("tags") String[] tags);
+
+    // After a retag only the tag part (weight B) of search_vector is rebuilt, so the compressed
+    // bodies need not be read back: the other weights are kept as they are.
+    @Modifying
+    @Query(nativeQuery = true, value = """
+            UPDATE lesson_materials lm SET modified_at = :modifiedAt, search_vector =
+                   ts_filter(coalesce(lm.search_vector, CAST('' AS tsvector)), '{a,c,d}')
+                || setweight(to_tsvector('german', coalesce(t.tags, '')), 'B')
+                || setweight(to_tsvector('english', coalesce(t.tags, '')), 'B')
+            FROM (SELECT x.id, (SELECT string_agg(mt.tag, ' ') FROM material_tags mt WHERE mt.material_id = x.id) AS tags
+                  FROM lesson_materials x WHERE x.owner_id = :ownerId AND x.id IN (:ids)) t
+            WHERE lm.id = t.id
+            """)
+    int refreshTagsOwned(@Param("ownerId") Long ownerId,
+                         @Param("ids") Collection<Long> ids,
+                         @Param("modifiedAt") LocalDateTime modifiedAt);
+
+    // Export: rows are read through a server-side cursor, EXPORT_FETCH_SIZE at a time, with the
+    // bodies joined in. Only usable inside a transaction (PostgreSQL ignores the fetch size otherwise).
+    String EXPORT_FETCH_SIZE = "100";
+
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = EXPORT_FETCH_SIZE),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT lm FROM LessonMaterial lm LEFT JOIN FETCH lm.body LEFT JOIN FETCH lm.formattedBody " +
+            OWNED + NEWEST_FIRST)
+    Stream<LessonMaterial> streamByOwner(@Param("owner") User owner);
+
+    @Query("SELECT lm.id AS materialId, t AS tag FROM LessonMaterial lm JOIN lm.tags t WHERE lm.id IN :ids")
+    List<MaterialTag> findTagsByMaterialIds(@Param("ids") Collection<Long> ids);
 }
\ No newline at end of file
@@ -0,0 +1,11 @@
+package at.technikum.clil.repository;
+
+/**
+ * Id and ts_rank_cd score of one full-text search match.
+ */
+public interface MaterialSearchHit {
+
+    Long getId();
+
+    Double getRank();
+}
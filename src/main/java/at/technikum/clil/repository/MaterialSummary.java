@@ -0,0 +1,26 @@
+package at.technikum.clil.repository;
+
+import java.time.LocalDateTime;
+
+/**
+ * Closed projection of the list columns of lesson_materials. Never selects the
+ * TEXT bodies (ai_response, formatted_html, description).
+ */
+public interface MaterialSummary {
+
+    Long getId();
+
+    String getMaterialType();
+
+    String getTopic();
+
+    String getSubject();
+
+    String getLanguageLevel();
+
+    Integer getVocabPercentage();
+
+    LocalDateTime getCreatedAt();
+
+    LocalDateTime getModifiedAt();
+}
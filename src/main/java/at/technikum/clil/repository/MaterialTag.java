@@ -0,0 +1,11 @@
+package at.technikum.clil.repository;
+
+/**
+ * One row of material_tags, used to attach tags to a page of summaries in a single query.
+ */
+public interface MaterialTag {
+
+    Long getMaterialId();
+
+    String getTag();
+}
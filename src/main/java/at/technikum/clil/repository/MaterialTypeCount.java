@@ -0,0 +1,11 @@
+package at.technikum.clil.repository;
+
+/**
+ * Number of materials of one type, for the library statistics.
+ */
+public interface MaterialTypeCount {
+
+    String getMaterialType();
+
+    Long getCount();
+}
@@ -13,6 +13,4 @@ public interface SubjectRepository extends JpaRepository<Subject, Long> {
     List<Subject> findByOwnerOrderByCreatedAtAsc(User owner);
 
     boolean existsByNameAndOwner(String name, User owner);
-
-    long countByOwner(User owner);
 }
@@ -1,9 +1,14 @@
 package at.technikum.clil.repository;
 
 import at.technikum.clil.model.User;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -21,4 +26,27 @@ public interface UserRepository extends JpaRepository<User, Long> {
     List<User> findByApprovedFalseOrderByCreatedAtAsc();
 
     long countByApprovedFalse();
+
+    @Query("SELECT u.tokenVersion FROM User u WHERE u.id = :id")
+    Optional<Integer> findTokenVersionById(@Param("id") Long id);
+
+    // Admin listings: counts come from correlated subqueries on the owner_id indexes,
+    // so a page of users costs one statement instead of 1 + 2N count queries
+    String SUMMARY_SELECT = "SELECT u.id AS id, u.username AS username, u.email AS email, " +
+            "u.createdAt AS createdAt, u.approved AS approved, " +
+            "(SELECT COUNT(m) FROM LessonMaterial m WHERE m.owner = u) AS materialCount, " +
+            "(SELECT COUNT(s) FROM Subject s WHERE s.owner = u) AS subjectCount " +
+            "FROM User u";
+
+    @Query(value = SUMMARY_SELECT, countQuery = "SELECT COUNT(u) FROM User u")
+    Page<UserSummary> findSummaries(Pageable pageable);
+
+    @Query(SUMMARY_SELECT + " WHERE u.approved = false ORDER BY u.createdAt ASC")
+    List<UserSummary> findPendingSummaries();
+
+    @Query(SUMMARY_SELECT + " WHERE u.id = :id")
+    Optional<UserSummary> findSummaryById(@Param("id") Long id);
+
+    @Query("SELECT u.id AS userId, r AS role FROM User u JOIN u.roles r WHERE u.id IN :ids")
+    List<UserRoleRow> findRolesByUserIds(@Param("ids") Collection<Long> ids);
 }
@@ -0,0 +1,13 @@
+package at.technikum.clil.repository;
+
+import at.technikum.clil.model.Role;
+
+/**
+ * One row of user_roles, used to attach roles to a page of user summaries in a single query.
+ */
+public interface UserRoleRow {
+
+    Long getUserId();
+
+    Role getRole();
+}
@@ -0,0 +1,24 @@
+package at.technikum.clil.repository;
+
+import java.time.LocalDateTime;
+
+/**
+ * User row for the admin views with its material and subject counts,
+ * computed in the same statement as the user columns.
+ */
+public interface UserSummary {
+
+    Long getId();
+
+    String getUsername();
+
+    String getEmail();
+
+    LocalDateTime getCreatedAt();
+
+    boolean getApproved();
+
+    long getMaterialCount();
+
+    long getSubjectCount();
+}
@@ -0,0 +1,119 @@
+package at.technikum.clil.security;
+
+import at.technikum.clil.service.AdmissionRejectedException;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Locale;
+
+/**
+ * Token buckets in front of login and registration, one per client IP and one per username.
+ * Each attempt takes a token from both; an empty bucket rejects the attempt with
+ * {@link AdmissionRejectedException} (429) until it has refilled. Idle buckets are dropped.
+ */
+@Slf4j
+@Component
+public class AuthRateLimiter {
+
+    public enum Endpoint {
+        LOGIN("login"),
+        REGISTER("register");
+
+        private final String key;
+
+        Endpoint(String key) {
+            this.key = key;
+        }
+    }
+
+    private final Limit perIp;
+    private final Limit perUsername;
+    private final Cache<String, TokenBucket> buckets;
+    private final MeterRegistry meterRegistry;
+
+    public AuthRateLimiter(
+            @Value("${auth.rate-limit.per-ip.capacity:60}") int ipCapacity,
+            @Value("${auth.rate-limit.per-ip.refill-interval:PT1S}") Duration ipRefillInterval,
+            @Value("${auth.rate-limit.per-username.capacity:5}") int usernameCapacity,
+            @Value("${auth.rate-limit.per-username.refill-interval:PT12S}") Duration usernameRefillInterval,
+            @Value("${auth.rate-limit.max-buckets:100000}") long maxBuckets,
+            MeterRegistry meterRegistry) {
+        this.perIp = new Limit("ip", ipCapacity, ipRefillInterval);
+        this.perUsername = new Limit("username", usernameCapacity, usernameRefillInterval);
+        this.meterRegistry = meterRegistry;
+        // A bucket idle for longer than its full refill is full again and can be dropped
+        Duration idle = max(ipRefillInterval.multipliedBy(ipCapacity),
+                usernameRefillInterval.multipliedBy(usernameCapacity));
+        this.buckets = Caffeine.newBuilder()
+                .maximumSize(maxBuckets)
+                .expireAfterAccess(idle)
+                .build();
+        log.info("Auth rate limit — per IP: {} every {}, per username: {} every {}",
+                ipCapacity, ipRefillInterval, usernameCapacity, usernameRefillInterval);
+    }
+
+    /**
+     * Takes one token for the client IP and one for the username.
+     *
+     * @throws AdmissionRejectedException if either bucket is empty
+     */
+    public void acquire(Endpoint endpoint, String clientIp, String username) {
+        take(endpoint, perIp, clientIp);
+        if (username != null && !username.isBlank()) {
+            take(endpoint, perUsername, username.trim().toLowerCase(Locale.ROOT));
+        }
+    }
+
+    private void take(Endpoint endpoint, Limit limit, String key) {
+        TokenBucket bucket = buckets.get(endpoint.key + ":" + limit.name + ":" + key,
+                k -> new TokenBucket(limit.capacity, limit.refillInterval.toNanos()));
+        long waitNanos = bucket.tryConsume(System.nanoTime());
+        if (waitNanos > 0) {
+            meterRegistry.counter("auth.rate_limit.rejected", "endpoint", endpoint.key, "key", limit.name)
+                    .increment();
+            log.warn("Auth rate limit — {} attempts for {} {} exceeded", endpoint.key, limit.name, key);
+            throw new AdmissionRejectedException("Too many " + endpoint.key + " attempts",
+                    Duration.ofSeconds(Math.max(1, (waitNanos + 999_999_999) / 1_000_000_000)));
+        }
+    }
+
+    private static Duration max(Duration a, Duration b) {
+        return a.compareTo(b) >= 0 ? a : b;
+    }
+
+    private record Limit(String name, int capacity, Duration refillInterval) {
+    }
+
+    private static final class TokenBucket {
+
+        private final int capacity;
+        private final long refillNanos;
+        private double tokens;
+        private long updatedAt;
+
+        private TokenBucket(int capacity, long refillNanos) {
+            this.capacity = capacity;
+            this.refillNanos = refillNanos;
+            this.tokens = capacity;
+            this.updatedAt = System.nanoTime();
+        }
+
+        /**
+         * Takes a token and returns 0, or returns the nanoseconds until the next token.
+         */
+        synchronized long tryConsume(long now) {
+            tokens = Math.min(capacity, tokens + (double) (now - updatedAt) / refillNanos);
+            updatedAt = now;
+            if (tokens >= 1) {
+                tokens -= 1;
+                return 0;
+            }
+            return (long) Math.ceil((1 - tokens) * refillNanos);
+        }
+    }
+}
@@ -1,11 +1,13 @@
 package at.technikum.clil.security;
 
+import at.technikum.clil.model.User;
+import io.jsonwebtoken.Claims;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
-import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.lang.NonNull;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
@@ -15,14 +17,25 @@ import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
+import java.util.Optional;
 
 @Slf4j
 @Component
-@RequiredArgsConstructor
 public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
     private final JwtService jwtService;
-    private final UserDetailsServiceImpl userDetailsService;
+    private final PrincipalCache principalCache;
+    private final TokenVersions tokenVersions;
+    private final boolean statelessPrincipal;
+
+    public JwtAuthenticationFilter(JwtService jwtService, PrincipalCache principalCache,
+                                   TokenVersions tokenVersions,
+                                   @Value("${jwt.stateless-principal:true}") boolean statelessPrincipal) {
+        this.jwtService = jwtService;
+        this.principalCache = principalCache;
+        this.tokenVersions = tokenVersions;
+        this.statelessPrincipal = statelessPrincipal;
+    }
 
     @Override
     protected void doFilterInternal(
@@ -40,12 +53,16 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         String token = authHeader.substring(7);
 
         try {
-            String username = jwtService.extractUsername(token);
+            Optional<Claims> claims = jwtService.validate(token);
 
-            if (username != null && SecurityContextHolder.getContext().getAuthentication() == null) {
-                UserDetails userDetails = userDetailsService.loadUserByUsername(username);
+            if (claims.isEmpty()) {
+                log.warn("JWT filter — invalid or expired token");
+            } else if (!jwtService.isAccessToken(claims.get())) {
+                log.warn("JWT filter — not an access token for user: {}", claims.get().getSubject());
+            } else if (SecurityContextHolder.getContext().getAuthentication() == null) {
+                UserDetails userDetails = principalOf(claims.get());
 
-                if (jwtService.isTokenValid(token, userDetails)) {
+                if (userDetails != null) {
                     UsernamePasswordAuthenticationToken authToken =
                             new UsernamePasswordAuthenticationToken(
                                     userDetails, null, userDetails.getAuthorities());
@@ -53,7 +70,7 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
                             new WebAuthenticationDetailsSource().buildDetails(request));
                     SecurityContextHolder.getContext().setAuthentication(authToken);
                 } else {
-                    log.warn("JWT filter — token invalid for user: {}", username);
+                    log.warn("JWT filter — token revoked for user: {}", claims.get().getSubject());
                 }
             }
         } catch (Exception e) {
@@ -62,4 +79,19 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
         filterChain.doFilter(request, response);
     }
+
+    /**
+     * The principal from the access token claims if they are complete and the token version is
+     * current, null if it was revoked. Access tokens without these claims are resolved through
+     * the principal cache.
+     */
+    private UserDetails principalOf(Claims claims) {
+        if (statelessPrincipal) {
+            Optional<User> principal = jwtService.principalOf(claims);
+            if (principal.isPresent()) {
+                return tokenVersions.isCurrent(principal.get()) ? principal.get() : null;
+            }
+        }
+        return principalCache.get(claims.getSubject());
+    }
 }
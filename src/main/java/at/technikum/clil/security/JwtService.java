@@ -1,79 +1,222 @@
 package at.technikum.clil.security;
 
+import at.technikum.clil.model.Role;
+import at.technikum.clil.model.User;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.io.Decoders;
 import io.jsonwebtoken.security.Keys;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.GrantedAuthority;
-import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Service;
 
 import javax.crypto.SecretKey;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Collections;
 import java.util.Date;
+import java.util.EnumSet;
+import java.util.HexFormat;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 
+@Slf4j
 @Service
 public class JwtService {
 
+    private static final String ROLE_PREFIX = "ROLE_";
+    private static final String ACCESS = "access";
+    private static final String REFRESH = "refresh";
+
     private final SecretKey signingKey;
+    private final JwtParser parser;
     private final long accessExpirationMs;
     private final long refreshExpirationMs;
+    // Claims of tokens whose signature was already verified, by SHA-256 of the token.
+    // An entry lives until the token expires, so a cache hit is always a valid token.
+    private final Cache<String, Claims> verified;
 
     public JwtService(
             @Value("${jwt.secret}") String secret,
             @Value("${jwt.expiration-ms}") long accessExpirationMs,
-            @Value("${jwt.refresh-expiration-ms}") long refreshExpirationMs) {
+            @Value("${jwt.refresh-expiration-ms}") long refreshExpirationMs,
+            @Value("${jwt.validation-cache.max-size:10000}") long validationCacheSize) {
         this.signingKey = Keys.hmacShaKeyFor(Decoders.BASE64.decode(secret));
+        this.parser = Jwts.parser().verifyWith(signingKey).build();
         this.accessExpirationMs = accessExpirationMs;
         this.refreshExpirationMs = refreshExpirationMs;
+        this.verified = validationCacheSize > 0
+                ? Caffeine.newBuilder()
+                        .maximumSize(validationCacheSize)
+                        .expireAfter(new UntilTokenExpiry())
+                        .build()
+                : null;
     }
 
-    public String generateAccessToken(UserDetails userDetails) {
-        String roles = userDetails.getAuthorities().stream()
+    public String generateAccessToken(User user) {
+        String roles = user.getAuthorities().stream()
                 .map(GrantedAuthority::getAuthority)
                 .collect(Collectors.joining(","));
 
         return Jwts.builder()
-                .subject(userDetails.getUsername())
+                .subject(user.getUsername())
+                .claim("uid", user.getId())
                 .claim("roles", roles)
-                .claim("type", "access")
+                .claim("ver", user.getTokenVersion())
+                .claim("type", ACCESS)
                 .issuedAt(new Date())
                 .expiration(new Date(System.currentTimeMillis() + accessExpirationMs))
                 .signWith(signingKey)
                 .compact();
     }
 
-    public String generateRefreshToken(UserDetails userDetails) {
+    public String generateRefreshToken(User user) {
         return Jwts.builder()
-                .subject(userDetails.getUsername())
-                .claim("type", "refresh")
+                .subject(user.getUsername())
+                .claim("uid", user.getId())
+                .claim("ver", user.getTokenVersion())
+                .claim("type", REFRESH)
                 .issuedAt(new Date())
                 .expiration(new Date(System.currentTimeMillis() + refreshExpirationMs))
                 .signWith(signingKey)
                 .compact();
     }
 
-    public String extractUsername(String token) {
-        return extractClaims(token).getSubject();
+    /**
+     * Parses and verifies the token once and returns its claims, or empty if the signature is
+     * wrong, the token is malformed or expired. Repeated calls with the same token are served
+     * from the cache without verifying the signature again.
+     */
+    public Optional<Claims> validate(String token) {
+        if (verified == null) {
+            return parse(token);
+        }
+        String key = hash(token);
+        Claims claims = verified.getIfPresent(key);
+        if (claims != null) {
+            return Optional.of(claims);
+        }
+        Optional<Claims> parsed = parse(token);
+        parsed.ifPresent(c -> verified.put(key, c));
+        return parsed;
+    }
+
+    /**
+     * True for access tokens. Only these may authenticate a request; a refresh token is
+     * accepted by the refresh endpoint alone.
+     */
+    public boolean isAccessToken(Claims claims) {
+        return ACCESS.equals(claims.get("type", String.class));
+    }
+
+    /**
+     * True if the claims are those of a refresh token issued to this user at its current
+     * token version. Refresh tokens issued before uid and ver were added are not accepted,
+     * since a revocation could not reach them.
+     */
+    public boolean isCurrentRefreshToken(Claims claims, User user) {
+        Long id = claims.get("uid", Long.class);
+        Integer version = claims.get("ver", Integer.class);
+        return REFRESH.equals(claims.get("type", String.class))
+                && user.getId().equals(id)
+                && version != null && version == user.getTokenVersion();
     }
 
-    public boolean isTokenValid(String token, UserDetails userDetails) {
-        Claims claims = extractClaims(token);
-        String username = claims.getSubject();
-        Date expiration = claims.getExpiration();
-        return username.equals(userDetails.getUsername()) && expiration.after(new Date());
+    /**
+     * Builds the principal of an access token from its claims (id, username, roles, token version)
+     * without a database lookup. Empty for refresh tokens, for access tokens issued before
+     * these claims were added and for tokens with a role this version does not know.
+     */
+    public Optional<User> principalOf(Claims claims) {
+        Long id = claims.get("uid", Long.class);
+        Integer version = claims.get("ver", Integer.class);
+        String roles = claims.get("roles", String.class);
+        if (!isAccessToken(claims) || id == null || version == null || roles == null) {
+            return Optional.empty();
+        }
+        Set<Role> parsedRoles = parseRoles(roles);
+        if (parsedRoles == null) {
+            return Optional.empty();
+        }
+        return Optional.of(User.builder()
+                .id(id)
+                .username(claims.getSubject())
+                .roles(parsedRoles)
+                .approved(true)
+                .tokenVersion(version)
+                .build());
     }
 
     public long getAccessExpirationMs() {
         return accessExpirationMs;
     }
 
-    private Claims extractClaims(String token) {
-        return Jwts.parser()
-                .verifyWith(signingKey)
-                .build()
-                .parseSignedClaims(token)
-                .getPayload();
+    /**
+     * The roles of the comma-separated authorities, or null if one of them is unknown.
+     */
+    private static Set<Role> parseRoles(String authorities) {
+        Set<Role> roles = EnumSet.noneOf(Role.class);
+        for (String authority : authorities.split(",")) {
+            if (!authority.startsWith(ROLE_PREFIX)) {
+                continue;
+            }
+            try {
+                roles.add(Role.valueOf(authority.substring(ROLE_PREFIX.length())));
+            } catch (IllegalArgumentException e) {
+                log.debug("Unknown role in JWT: {}", authority);
+                return null;
+            }
+        }
+        return Collections.unmodifiableSet(roles);
+    }
+
+    private Optional<Claims> parse(String token) {
+        try {
+            Claims claims = parser.parseSignedClaims(token).getPayload();
+            return claims.getSubject() != null && claims.getExpiration() != null
+                    ? Optional.of(claims)
+                    : Optional.empty();
+        } catch (JwtException | IllegalArgumentException e) {
+            log.debug("Rejected JWT: {}", e.getMessage());
+            return Optional.empty();
+        }
+    }
+
+
+    private static String hash(String token) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(token.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    private static final class UntilTokenExpiry implements Expiry<String, Claims> {
+
+        @Override
+        public long expireAfterCreate(String key, Claims claims, long currentTime) {
+            long remainingMs = claims.getExpiration().getTime() - System.currentTimeMillis();
+            return TimeUnit.MILLISECONDS.toNanos(Math.max(remainingMs, 0));
+        }
+
+        @Override
+        public long expireAfterUpdate(String key, Claims claims, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+
+        @Override
+        public long expireAfterRead(String key, Claims claims, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
     }
 }
@@ -0,0 +1,68 @@
+package at.technikum.clil.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+
+/**
+ * Authenticated principals by username, so that the JWT filter does not load the user and
+ * its roles from the database on every request. Entries expire after the TTL and are
+ * invalidated explicitly when an admin changes a user (roles, approval, deletion).
+ * Login still goes through {@link UserDetailsServiceImpl} directly.
+ */
+@Slf4j
+@Component
+public class PrincipalCache {
+
+    private final UserDetailsServiceImpl userDetailsService;
+    private final Cache<String, UserDetails> cache;
+
+    public PrincipalCache(
+            UserDetailsServiceImpl userDetailsService,
+            @Value("${jwt.principal-cache.max-size:10000}") long maxSize,
+            @Value("${jwt.principal-cache.ttl:PT5M}") Duration ttl,
+            MeterRegistry meterRegistry) {
+        this.userDetailsService = userDetailsService;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "auth.principal");
+        log.info("Principal cache — maxSize: {}, ttl: {}", maxSize, ttl);
+    }
+
+    /**
+     * Returns the cached principal or loads it; unknown users are not cached.
+     */
+    public UserDetails get(String username) throws UsernameNotFoundException {
+        return cache.get(username, userDetailsService::loadUserByUsername);
+    }
+
+    /**
+     * Drops the cached principal. Inside a transaction this happens after commit, so a
+     * concurrent request cannot cache the state from before the change again.
+     */
+    public void invalidate(String username) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    cache.invalidate(username);
+                }
+            });
+        } else {
+            cache.invalidate(username);
+        }
+    }
+}
@@ -0,0 +1,102 @@
+package at.technikum.clil.security;
+
+import at.technikum.clil.model.User;
+import at.technikum.clil.repository.UserRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Ticker;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+
+/**
+ * Current token version per user id, checked for every request authenticated from token claims.
+ * A user's version is read from the database and then kept in memory; revoking increments it in
+ * the database and, after commit, here. Deleted users are marked as revoked (ids are never reused).
+ * <p>
+ * The map is bounded by size and TTL. An evicted entry is simply read again, the database holds
+ * the current version. The map is per process: with several instances, a revocation made on
+ * another instance takes effect here once the entry expires, at the latest after the TTL.
+ */
+@Slf4j
+@Component
+public class TokenVersions {
+
+    private static final int REVOKED = -1;
+
+    private final UserRepository userRepository;
+    private final Cache<Long, Integer> versions;
+
+    @Autowired
+    public TokenVersions(
+            UserRepository userRepository,
+            @Value("${jwt.token-versions.max-size:10000}") long maxSize,
+            @Value("${jwt.token-versions.ttl:PT5M}") Duration ttl,
+            MeterRegistry meterRegistry) {
+        this(userRepository, maxSize, ttl, meterRegistry, Ticker.systemTicker());
+    }
+
+    TokenVersions(UserRepository userRepository, long maxSize, Duration ttl, MeterRegistry meterRegistry,
+                  Ticker ticker) {
+        this.userRepository = userRepository;
+        this.versions = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .ticker(ticker)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, versions, "auth.token-versions");
+        log.info("Token versions — maxSize: {}, ttl: {}", maxSize, ttl);
+    }
+
+    /**
+     * True if the version in the principal's token is still the user's current one.
+     */
+    public boolean isCurrent(User principal) {
+        Integer current = versions.getIfPresent(principal.getId());
+        if (current == null) {
+            int loaded = userRepository.findTokenVersionById(principal.getId()).orElse(REVOKED);
+            // A revocation committed in the meantime has already put the newer version
+            current = versions.asMap().putIfAbsent(principal.getId(), loaded);
+            if (current == null) {
+                current = loaded;
+            }
+        }
+        return current != REVOKED && current == principal.getTokenVersion();
+    }
+
+    /**
+     * Invalidates all access and refresh tokens of the user. The entity must be saved by the
+     * caller's transaction; the refresh endpoint compares against the saved version.
+     */
+    public void revoke(User user) {
+        user.setTokenVersion(user.getTokenVersion() + 1);
+        log.info("Revoking tokens of user {} (id={}), token version now {}",
+                user.getUsername(), user.getId(), user.getTokenVersion());
+        afterCommit(user.getId(), user.getTokenVersion());
+    }
+
+    public void revokeDeleted(Long userId) {
+        afterCommit(userId, REVOKED);
+    }
+
+    private void afterCommit(Long userId, int version) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    versions.put(userId, version);
+                }
+            });
+        } else {
+            versions.put(userId, version);
+        }
+    }
+}
@@ -1,12 +1,19 @@
 package at.technikum.clil.service;
 
 import at.technikum.clil.dto.UserDto;
+import at.technikum.clil.dto.UserPage;
 import at.technikum.clil.model.Role;
 import at.technikum.clil.model.User;
 import at.technikum.clil.repository.LessonMaterialRepository;
 import at.technikum.clil.repository.UserRepository;
+import at.technikum.clil.repository.UserRoleRow;
+import at.technikum.clil.repository.UserSummary;
+import at.technikum.clil.security.PrincipalCache;
+import at.technikum.clil.security.TokenVersions;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -15,6 +22,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
+import java.util.stream.Collectors;
 
 @Slf4j
 @Service
@@ -23,56 +31,60 @@ public class AdminService {
 
     private final UserRepository userRepository;
     private final LessonMaterialRepository materialRepository;
+    private final PrincipalCache principalCache;
+    private final TokenVersions tokenVersions;
 
     @Transactional(readOnly = true)
-    public List<UserDto> getAllUsers() {
-        return userRepository.findAll().stream()
-                .map(user -> UserDto.fromEntity(user, materialRepository.countByOwner(user)))
-                .toList();
+    public UserPage getUsers(Pageable pageable) {
+        Page<UserSummary> page = userRepository.findSummaries(pageable);
+        return new UserPage(toDtos(page.getContent()), page.getNumber(), page.getSize(),
+                page.getTotalElements(), page.getTotalPages());
     }
 
     @Transactional(readOnly = true)
     public Optional<UserDto> getUserById(Long id) {
-        return userRepository.findById(id)
-                .map(user -> UserDto.fromEntity(user, materialRepository.countByOwner(user)));
+        return userRepository.findById(id).flatMap(this::toDto);
     }
 
     @Transactional
     public Optional<UserDto> updateUserRoles(Long userId, Set<Role> roles) {
         return userRepository.findById(userId)
-                .map(user -> {
+                .flatMap(user -> {
                     log.info("Updating roles for user {} (id={}): {} -> {}", user.getUsername(), userId, user.getRoles(), roles);
                     user.setRoles(roles);
-                    User saved = userRepository.save(user);
-                    return UserDto.fromEntity(saved, materialRepository.countByOwner(saved));
+                    tokenVersions.revoke(user);
+                    principalCache.invalidate(user.getUsername());
+                    return toDto(userRepository.save(user));
                 });
     }
 
     @Transactional
     public boolean deleteUser(Long userId) {
-        if (userRepository.existsById(userId)) {
-            log.info("Deleting user with id={}", userId);
-            userRepository.deleteById(userId);
-            return true;
-        }
-        return false;
+        return userRepository.findById(userId)
+                .map(user -> {
+                    log.info("Deleting user {} (id={})", user.getUsername(), userId);
+                    userRepository.delete(user);
+                    tokenVersions.revokeDeleted(userId);
+                    principalCache.invalidate(user.getUsername());
+                    return true;
+                })
+                .orElse(false);
     }
 
     @Transactional(readOnly = true)
     public List<UserDto> getPendingUsers() {
-        return userRepository.findByApprovedFalseOrderByCreatedAtAsc().stream()
-                .map(user -> UserDto.fromEntity(user, materialRepository.countByOwner(user)))
-                .toList();
+        return toDtos(userRepository.findPendingSummaries());
     }
 
     @Transactional
     public Optional<UserDto> approveUser(Long userId) {
         return userRepository.findById(userId)
-                .map(user -> {
+                .flatMap(user -> {
                     log.info("Approving user {} (id={})", user.getUsername(), userId);
                     user.setApproved(true);
-                    User saved = userRepository.save(user);
-                    return UserDto.fromEntity(saved, materialRepository.countByOwner(saved));
+                    tokenVersions.revoke(user);
+                    principalCache.invalidate(user.getUsername());
+                    return toDto(userRepository.save(user));
                 });
     }
 
@@ -93,4 +105,26 @@ public class AdminService {
         stats.put("pendingApprovals", pendingApprovals);
         return stats;
     }
+
+    private Optional<UserDto> toDto(User user) {
+        return userRepository.findSummaryById(user.getId())
+                .map(summary -> UserDto.fromSummary(summary, user.getRoles()));
+    }
+
+    /**
+     * Attaches roles to a page of summaries with one user_roles query.
+     */
+    private List<UserDto> toDtos(List<UserSummary> summaries) {
+        if (summaries.isEmpty()) {
+            return List.of();
+        }
+        Map<Long, List<Role>> roles = userRepository
+                .findRolesByUserIds(summaries.stream().map(UserSummary::getId).toList())
+                .stream()
+                .collect(Collectors.groupingBy(UserRoleRow::getUserId,
+                        Collectors.mapping(UserRoleRow::getRole, Collectors.toList())));
+        return summaries.stream()
+                .map(summary -> UserDto.fromSummary(summary, roles.getOrDefault(summary.getId(), List.of())))
+                .toList();
+    }
 }
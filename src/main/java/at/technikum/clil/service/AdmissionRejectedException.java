@@ -0,0 +1,21 @@
+package at.technikum.clil.service;
+
+import java.time.Duration;
+
+/**
+ * Thrown when a request cannot be admitted because the operation's wait queue
+ * is full or the wait took too long. Mapped to 429 with a Retry-After header.
+ */
+public class AdmissionRejectedException extends RuntimeException {
+
+    private final Duration retryAfter;
+
+    public AdmissionRejectedException(String message, Duration retryAfter) {
+        super(message);
+        this.retryAfter = retryAfter;
+    }
+
+    public Duration getRetryAfter() {
+        return retryAfter;
+    }
+}
@@ -0,0 +1,294 @@
+package at.technikum.clil.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.MonoSink;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Supplier;
+
+/**
+ * Admission control in front of the RAG proxies: a global concurrency limit per
+ * operation, a per-user limit and a short bounded wait queue. Waiting is
+ * non-blocking; requests that cannot be queued (or wait too long) fail with
+ * {@link AdmissionRejectedException}.
+ */
+@Slf4j
+@Service
+public class AdmissionService {
+
+    public enum Operation {
+        GENERATE("generate", 16, 2, 32),
+        INGEST("ingest", 4, 1, 8),
+        QUERY("query", 8, 2, 16);
+
+        private final String key;
+        private final int defaultGlobalLimit;
+        private final int defaultPerUserLimit;
+        private final int defaultQueueSize;
+
+        Operation(String key, int defaultGlobalLimit, int defaultPerUserLimit, int defaultQueueSize) {
+            this.key = key;
+            this.defaultGlobalLimit = defaultGlobalLimit;
+            this.defaultPerUserLimit = defaultPerUserLimit;
+            this.defaultQueueSize = defaultQueueSize;
+        }
+    }
+
+    private final Map<Operation, Limiter> limiters = new EnumMap<>(Operation.class);
+    private final Duration retryAfter;
+
+    public AdmissionService(Environment env, MeterRegistry meterRegistry) {
+        this.retryAfter = Duration.parse(env.getProperty("rag.admission.retry-after", "PT5S"));
+        for (Operation op : Operation.values()) {
+            String prefix = "rag.admission." + op.key + ".";
+            Limiter limiter = new Limiter(op,
+                    env.getProperty(prefix + "global-limit", Integer.class, op.defaultGlobalLimit),
+                    env.getProperty(prefix + "per-user-limit", Integer.class, op.defaultPerUserLimit),
+                    env.getProperty(prefix + "queue-size", Integer.class, op.defaultQueueSize),
+                    Duration.parse(env.getProperty(prefix + "max-wait", "PT10S")),
+                    meterRegistry);
+            limiters.put(op, limiter);
+            log.info("Admission {} — global: {}, per user: {}, queue: {}, max wait: {}",
+                    op.key, limiter.globalLimit, limiter.perUserLimit, limiter.queueSize, limiter.maxWait);
+        }
+    }
+
+    public <T> Mono<T> admit(Operation op, Long userId, Supplier<Mono<T>> call) {
+        return Mono.defer(() -> {
+            Lease lease = new Lease();
+            return limiters.get(op).acquire(userId, lease)
+                    .flatMap(permit -> call.get())
+                    .doFinally(signal -> lease.close());
+        });
+    }
+
+    public <T> Flux<T> admitMany(Operation op, Long userId, Supplier<Flux<T>> call) {
+        return Flux.defer(() -> {
+            Lease lease = new Lease();
+            return limiters.get(op).acquire(userId, lease)
+                    .flatMapMany(permit -> call.get())
+                    .doFinally(signal -> lease.close());
+        });
+    }
+
+    Mono<Permit> acquire(Operation op, Long userId) {
+        return limiters.get(op).acquire(userId, new Lease());
+    }
+
+    private final class Limiter {
+
+        private final Operation op;
+        private final int globalLimit;
+        private final int perUserLimit;
+        private final int queueSize;
+        private final Duration maxWait;
+
+        private final Deque<Waiter> queue = new ArrayDeque<>();
+        private final Map<Long, Integer> activePerUser = new HashMap<>();
+        private final Map<Long, Integer> queuedPerUser = new HashMap<>();
+        private int active;
+
+        private final Timer waitTimer;
+        private final Counter queueFullRejections;
+        private final Counter timeoutRejections;
+
+        Limiter(Operation op, int globalLimit, int perUserLimit, int queueSize, Duration maxWait,
+                MeterRegistry meterRegistry) {
+            this.op = op;
+            this.globalLimit = globalLimit;
+            this.perUserLimit = perUserLimit;
+            this.queueSize = queueSize;
+            this.maxWait = maxWait;
+
+            Gauge.builder("rag.admission.queue.depth", this, Limiter::queued)
+                    .tag("operation", op.key)
+                    .register(meterRegistry);
+            Gauge.builder("rag.admission.active", this, Limiter::active)
+                    .tag("operation", op.key)
+                    .register(meterRegistry);
+            this.waitTimer = Timer.builder("rag.admission.wait")
+                    .tag("operation", op.key)
+                    .publishPercentileHistogram()
+                    .register(meterRegistry);
+            this.queueFullRejections = meterRegistry.counter("rag.admission.rejected",
+                    "operation", op.key, "reason", "queue_full");
+            this.timeoutRejections = meterRegistry.counter("rag.admission.rejected",
+                    "operation", op.key, "reason", "timeout");
+        }
+
+        Mono<Permit> acquire(Long userId, Lease lease) {
+            Mono<Permit> permit = Mono.<Permit>create(sink -> {
+                Waiter waiter = new Waiter(userId, sink, System.nanoTime());
+                synchronized (this) {
+                    if (hasCapacity(userId)) {
+                        Permit granted = grant(userId);
+                        waitTimer.record(Duration.ZERO);
+                        sink.success(granted);
+                        return;
+                    }
+                    if (queue.size() >= queueSize || count(queuedPerUser, userId) >= perUserLimit) {
+                        queueFullRejections.increment();
+                        sink.error(new AdmissionRejectedException(
+                                "Too many concurrent " + op.key + " requests", retryAfter));
+                        return;
+                    }
+                    queue.addLast(waiter);
+                    adjust(queuedPerUser, userId, 1);
+                }
+                sink.onCancel(() -> abandon(waiter));
+            }).doOnNext(lease::hold);
+
+            return permit.timeout(maxWait)
+                    .onErrorMap(TimeoutException.class, e -> {
+                        timeoutRejections.increment();
+                        return new AdmissionRejectedException(
+                                "Timed out waiting for a free " + op.key + " slot", retryAfter);
+                    });
+        }
+
+        private boolean hasCapacity(Long userId) {
+            return active < globalLimit && count(activePerUser, userId) < perUserLimit;
+        }
+
+        private Permit grant(Long userId) {
+            active++;
+            adjust(activePerUser, userId, 1);
+            return new Permit(this, userId);
+        }
+
+        private void abandon(Waiter waiter) {
+            Permit orphan = null;
+            synchronized (this) {
+                if (queue.remove(waiter)) {
+                    adjust(queuedPerUser, waiter.userId, -1);
+                } else {
+                    orphan = waiter.permit;  // granted concurrently with the cancel
+                }
+            }
+            if (orphan != null) {
+                orphan.release();
+            }
+        }
+
+        void release(Long userId) {
+            List<Waiter> admitted = new ArrayList<>();
+            synchronized (this) {
+                active--;
+                adjust(activePerUser, userId, -1);
+
+                Iterator<Waiter> it = queue.iterator();
+                while (it.hasNext() && active < globalLimit) {
+                    Waiter waiter = it.next();
+                    if (count(activePerUser, waiter.userId) < perUserLimit) {
+                        it.remove();
+                        adjust(queuedPerUser, waiter.userId, -1);
+                        waiter.permit = grant(waiter.userId);
+                        admitted.add(waiter);
+                    }
+                }
+            }
+            // Complete outside the lock: success() may subscribe the upstream call inline
+            for (Waiter waiter : admitted) {
+                waitTimer.record(Duration.ofNanos(System.nanoTime() - waiter.enqueuedAt));
+                waiter.sink.success(waiter.permit);
+            }
+        }
+
+        private synchronized int queued() {
+            return queue.size();
+        }
+
+        private synchronized int active() {
+            return active;
+        }
+
+        private int count(Map<Long, Integer> counts, Long userId) {
+            return userId == null ? 0 : counts.getOrDefault(userId, 0);
+        }
+
+        private void adjust(Map<Long, Integer> counts, Long userId, int delta) {
+            if (userId != null) {
+                counts.merge(userId, delta, (a, b) -> a + b == 0 ? null : a + b);
+            }
+        }
+    }
+
+    private static final class Waiter {
+        private final Long userId;
+        private final MonoSink<Permit> sink;
+        private final long enqueuedAt;
+        private volatile Permit permit;
+
+        private Waiter(Long userId, MonoSink<Permit> sink, long enqueuedAt) {
+            this.userId = userId;
+            this.sink = sink;
+            this.enqueuedAt = enqueuedAt;
+        }
+    }
+
+    /**
+     * The permit of one admitted call, released when the call terminates or is cancelled.
+     * A permit granted while the cancel is in flight can still arrive after it (the
+     * downstream then drops it); it is released as soon as it arrives.
+     */
+    private static final class Lease {
+        private Permit permit;
+        private boolean closed;
+
+        void hold(Permit granted) {
+            synchronized (this) {
+                if (!closed) {
+                    permit = granted;
+                    return;
+                }
+            }
+            granted.release();
+        }
+
+        void close() {
+            Permit held;
+            synchronized (this) {
+                closed = true;
+                held = permit;
+            }
+            if (held != null) {
+                held.release();
+            }
+        }
+    }
+
+    static final class Permit {
+        private final Limiter limiter;
+        private final Long userId;
+        private final AtomicBoolean released = new AtomicBoolean(false);
+
+        private Permit(Limiter limiter, Long userId) {
+            this.limiter = limiter;
+            this.userId = userId;
+        }
+
+        void release() {
+            if (released.compareAndSet(false, true)) {
+                limiter.release(userId);
+            }
+        }
+    }
+}
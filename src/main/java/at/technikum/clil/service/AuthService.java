@@ -8,10 +8,10 @@ import at.technikum.clil.model.Role;
 import at.technikum.clil.model.User;
 import at.technikum.clil.repository.UserRepository;
 import at.technikum.clil.security.JwtService;
+import io.jsonwebtoken.Claims;
 import lombok.RequiredArgsConstructor;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
-import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
@@ -59,15 +59,18 @@ public class AuthService {
         return buildAuthResponse(user);
     }
 
+    /**
+     * Issues new tokens for a refresh token. The user is loaded from the database, so a token
+     * version bumped by a revocation rejects the refresh token as well.
+     */
     public AuthResponse refresh(RefreshRequest request) {
-        String username = jwtService.extractUsername(request.getRefreshToken());
-        UserDetails userDetails = userDetailsService.loadUserByUsername(username);
-
-        if (!jwtService.isTokenValid(request.getRefreshToken(), userDetails)) {
-            throw new IllegalArgumentException("Invalid refresh token");
+        Claims claims = jwtService.validate(request.getRefreshToken())
+                .orElseThrow(() -> new IllegalArgumentException("Invalid refresh token"));
+        User user = (User) userDetailsService.loadUserByUsername(claims.getSubject());
+        if (!jwtService.isCurrentRefreshToken(claims, user)) {
+            throw new IllegalArgumentException("Refresh token revoked");
         }
 
-        User user = (User) userDetails;
         return buildAuthResponse(user);
     }
 
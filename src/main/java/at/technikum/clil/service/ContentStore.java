@@ -0,0 +1,110 @@
+package at.technikum.clil.service;
+
+import at.technikum.clil.model.ContentBlob;
+import at.technikum.clil.repository.ContentBlobRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.core.namedparam.SqlParameterSource;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Content-addressed storage for material bodies: identical texts (e.g. aiResponse and
+ * formattedHtml of the same material, or duplicated materials) share one compressed row.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ContentStore {
+
+    private final ContentBlobRepository repository;
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    @Value("${spring.jpa.properties.hibernate.jdbc.batch_size:50}")
+    private int batchSize;
+
+    /**
+     * Liefert den Blob für den Text und legt ihn an, falls es ihn noch nicht gibt. Ein bereits
+     * vorhandener Blob bekommt einen neuen Zeitstempel, damit ihn die Bereinigung nicht löscht,
+     * bevor das Material gespeichert ist.
+     */
+    @Transactional
+    public ContentBlob store(String text) {
+        if (text == null) {
+            return null;
+        }
+        ContentBlob blob = ContentBlob.of(text);
+        if (repository.touch(blob.getHash(), blob.getCreatedAt()) == 0) {
+            repository.insertOrTouch(blob.getHash(), blob.getData(), blob.getOriginalSize(), blob.getCreatedAt());
+            log.debug("Stored content blob {} ({} -> {} bytes)",
+                    blob.getHash(), blob.getOriginalSize(), blob.getData().length);
+        }
+        return repository.getReferenceById(blob.getHash());
+    }
+
+    /**
+     * Wie {@link #store(String)} für viele Texte auf einmal: die Blobs werden in JDBC-Batches
+     * eingefügt statt mit einer Anweisung pro Text. Liefert den Blob je Text.
+     */
+    @Transactional
+    public Map<String, ContentBlob> storeAll(Collection<String> texts) {
+        Map<String, ContentBlob> blobsByHash = new LinkedHashMap<>();
+        Map<String, String> hashByText = new HashMap<>();
+        for (String text : texts) {
+            if (text != null && !hashByText.containsKey(text)) {
+                ContentBlob blob = ContentBlob.of(text);
+                hashByText.put(text, blob.getHash());
+                blobsByHash.putIfAbsent(blob.getHash(), blob);
+            }
+        }
+
+        List<SqlParameterSource> batch = new ArrayList<>(batchSize);
+        for (ContentBlob blob : blobsByHash.values()) {
+            batch.add(new MapSqlParameterSource()
+                    .addValue("hash", blob.getHash())
+                    .addValue("data", blob.getData())
+                    .addValue("originalSize", blob.getOriginalSize())
+                    .addValue("createdAt", blob.getCreatedAt()));
+            if (batch.size() == batchSize) {
+                insertOrTouch(batch);
+            }
+        }
+        insertOrTouch(batch);
+        log.debug("Stored {} content blobs for {} texts", blobsByHash.size(), hashByText.size());
+
+        Map<String, ContentBlob> blobsByText = new HashMap<>();
+        hashByText.forEach((text, hash) -> blobsByText.put(text, repository.getReferenceById(hash)));
+        return blobsByText;
+    }
+
+    private void insertOrTouch(List<SqlParameterSource> batch) {
+        if (!batch.isEmpty()) {
+            jdbcTemplate.batchUpdate(ContentBlobRepository.INSERT_OR_TOUCH, batch.toArray(SqlParameterSource[]::new));
+            batch.clear();
+        }
+    }
+
+    /**
+     * Entfernt Blobs, auf die kein Material mehr verweist
+     */
+    @Scheduled(cron = "${content.blobs.cleanup-cron:0 30 3 * * *}")
+    @Transactional
+    public void deleteUnreferenced() {
+        int deleted = repository.deleteUnreferenced(LocalDateTime.now().minusHours(1));
+        if (deleted > 0) {
+            log.info("Deleted {} unreferenced content blobs", deleted);
+        }
+    }
+}
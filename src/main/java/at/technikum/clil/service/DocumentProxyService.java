@@ -2,26 +2,48 @@ package at.technikum.clil.service;
 
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
 import org.springframework.http.MediaType;
+import org.springframework.http.MediaTypeFactory;
 import org.springframework.http.client.MultipartBodyBuilder;
 import org.springframework.stereotype.Service;
+import org.springframework.util.unit.DataSize;
 import org.springframework.web.multipart.MultipartFile;
 import org.springframework.web.reactive.function.BodyInserters;
 import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
 
+import java.io.InputStream;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.atomic.AtomicLong;
 
 @Slf4j
 @Service
 public class DocumentProxyService {
 
-    private final WebClient webClient;
+    private static final int STREAM_BUFFER_SIZE = 64 * 1024;
 
-    public DocumentProxyService(@Qualifier("ragServiceWebClient") WebClient webClient) {
+    private final WebClient webClient;
+    private final RagTransport transport;
+    private final ProxyMetrics metrics;
+    private final DataSize maxStreamSize;
+
+    public DocumentProxyService(@Qualifier("ragServiceWebClient") WebClient webClient,
+                                RagTransport transport,
+                                ProxyMetrics metrics,
+                                @Value("${rag.ingest.stream.max-size:20MB}") DataSize maxStreamSize) {
         this.webClient = webClient;
+        this.transport = transport;
+        this.metrics = metrics;
+        this.maxStreamSize = maxStreamSize;
     }
 
     /**
@@ -31,25 +53,53 @@ public class DocumentProxyService {
         log.info("Proxying document upload to RAG service — file: {}, userId: {}, subject: {}",
                 file.getOriginalFilename(), userId, subject);
 
-        String metadataJson = (subject != null && !subject.isBlank())
-                ? "{\"user_id\": \"" + userId + "\", \"subject\": \"" + subject + "\"}"
-                : "{\"user_id\": \"" + userId + "\"}";
-
         MultipartBodyBuilder builder = new MultipartBodyBuilder();
         builder.part("file", file.getResource());
-        builder.part("metadata", metadataJson);
+        builder.part("metadata", metadataJson(userId, subject));
 
-        return webClient.post()
-                .uri("/rag/ingest")
-                .contentType(MediaType.MULTIPART_FORM_DATA)
-                .body(BodyInserters.fromMultipartData(builder.build()))
-                .retrieve()
-                .bodyToMono(new ParameterizedTypeReference<Map<String, Object>>() {})
-                .doOnSuccess(resp -> log.info("Document uploaded successfully: {}", resp))
-                .onErrorResume(error -> {
-                    log.error("Error uploading document: {}", error.getMessage());
-                    return Mono.just(Map.of("error", error.getMessage()));
-                });
+        return ingest(builder);
+    }
+
+    /**
+     * Streams a document from the request body to the RAG service for ingestion. The body is
+     * read in {@link #STREAM_BUFFER_SIZE} chunks only as fast as the RAG connection takes them,
+     * so neither the servlet nor this service holds the whole file. Fails with
+     * {@link UploadSourceException} if the body cannot be read or exceeds the size limit.
+     */
+    public Mono<Map<String, Object>> uploadDocumentStream(Callable<InputStream> body, String filename,
+                                                          Long userId, String subject) {
+        log.info("Streaming document upload to RAG service — file: {}, userId: {}, subject: {}",
+                filename, userId, subject);
+
+        Flux<DataBuffer> content = Flux.defer(() -> {
+            AtomicLong received = new AtomicLong();
+            return DataBufferUtils.readInputStream(body, DefaultDataBufferFactory.sharedInstance, STREAM_BUFFER_SIZE)
+                    .subscribeOn(Schedulers.boundedElastic())
+                    .onErrorMap(error -> new UploadSourceException("Upload aborted", false, error))
+                    .<DataBuffer>handle((buffer, sink) -> {
+                        if (received.addAndGet(buffer.readableByteCount()) > maxStreamSize.toBytes()) {
+                            DataBufferUtils.release(buffer);
+                            sink.error(new UploadSourceException("File too large", true, null));
+                        } else {
+                            sink.next(buffer);
+                        }
+                    });
+        });
+
+        MultipartBodyBuilder builder = new MultipartBodyBuilder();
+        builder.asyncPart("file", content, DataBuffer.class)
+                .filename(filename)
+                .contentType(MediaTypeFactory.getMediaType(filename).orElse(MediaType.APPLICATION_OCTET_STREAM));
+        builder.part("metadata", metadataJson(userId, subject));
+
+        return ingest(builder);
+    }
+
+    /**
+     * True if a body of the declared length ({@code -1} if unknown) may be streamed.
+     */
+    public boolean isWithinStreamLimit(long contentLength) {
+        return contentLength <= maxStreamSize.toBytes();
     }
 
     /**
@@ -68,12 +118,16 @@ public class DocumentProxyService {
 
         return webClient.post()
                 .uri("/rag/query")
+                .httpRequest(transport.timeout(RagTransport.Route.QUERY))
                 .bodyValue(body)
                 .retrieve()
                 .bodyToMono(new ParameterizedTypeReference<Map<String, Object>>() {})
+                .transform(call -> transport.guard(RagTransport.Route.QUERY, call))
+                .transform(metrics.timed("query", null))
                 .doOnSuccess(resp -> log.info("RAG query completed successfully"))
                 .onErrorResume(error -> {
                     log.error("Error querying documents: {}", error.getMessage());
+                    metrics.fallback("query", error);
                     return Mono.just(Map.of("error", error.getMessage()));
                 });
     }
@@ -88,11 +142,15 @@ public class DocumentProxyService {
                 .uri(uriBuilder -> uriBuilder.path("/rag/documents")
                         .queryParam("user_id", userId.toString())
                         .build())
+                .httpRequest(transport.timeout(RagTransport.Route.DOCUMENTS_LIST))
                 .retrieve()
                 .bodyToMono(new ParameterizedTypeReference<List<Map<String, Object>>>() {})
+                .transform(call -> transport.guard(RagTransport.Route.DOCUMENTS_LIST, call))
+                .transform(metrics.timed("documents_list", null))
                 .doOnSuccess(docs -> log.info("Fetched {} documents", docs != null ? docs.size() : 0))
                 .onErrorResume(error -> {
                     log.error("Error listing documents: {}", error.getMessage());
+                    metrics.fallback("documents_list", error);
                     return Mono.just(List.of());
                 });
     }
@@ -105,13 +163,41 @@ public class DocumentProxyService {
 
         return webClient.method(org.springframework.http.HttpMethod.DELETE)
                 .uri("/rag/documents")
+                .httpRequest(transport.timeout(RagTransport.Route.DOCUMENTS_DELETE))
                 .bodyValue(Map.of("doc_ids", docIds))
                 .retrieve()
                 .bodyToMono(new ParameterizedTypeReference<Map<String, Object>>() {})
+                .transform(call -> transport.guard(RagTransport.Route.DOCUMENTS_DELETE, call))
+                .transform(metrics.timed("documents_delete", null))
                 .doOnSuccess(resp -> log.info("Documents deleted: {}", resp))
                 .onErrorResume(error -> {
                     log.error("Error deleting documents: {}", error.getMessage());
+                    metrics.fallback("documents_delete", error);
                     return Mono.just(Map.of("error", error.getMessage()));
                 });
     }
+
+    private Mono<Map<String, Object>> ingest(MultipartBodyBuilder builder) {
+        return webClient.post()
+                .uri("/rag/ingest")
+                .httpRequest(transport.timeout(RagTransport.Route.INGEST))
+                .contentType(MediaType.MULTIPART_FORM_DATA)
+                .body(BodyInserters.fromMultipartData(builder.build()))
+                .retrieve()
+                .bodyToMono(new ParameterizedTypeReference<Map<String, Object>>() {})
+                .transform(call -> transport.guard(RagTransport.Route.INGEST, call))
+                .transform(metrics.timed("ingest", null))
+                .doOnSuccess(resp -> log.info("Document uploaded successfully: {}", resp))
+                .onErrorResume(error -> UploadSourceException.find(error) == null, error -> {
+                    log.error("Error uploading document: {}", error.getMessage());
+                    metrics.fallback("ingest", error);
+                    return Mono.just(Map.of("error", error.getMessage()));
+                });
+    }
+
+    private static String metadataJson(Long userId, String subject) {
+        return (subject != null && !subject.isBlank())
+                ? "{\"user_id\": \"" + userId + "\", \"subject\": \"" + subject + "\"}"
+                : "{\"user_id\": \"" + userId + "\"}";
+    }
 }
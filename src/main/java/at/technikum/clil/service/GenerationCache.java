@@ -0,0 +1,78 @@
+package at.technikum.clil.service;
+
+import at.technikum.clil.dto.ClilResponse;
+import at.technikum.clil.dto.MaterialRequest;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Optional;
+
+/**
+ * In-process cache of generated material, keyed by {@link GenerationKey}.
+ * Requests that use document context are user-specific and never cached;
+ * callers can opt out per request with {@code skipCache}.
+ */
+@Slf4j
+@Component
+public class GenerationCache {
+
+    private final boolean enabled;
+    private final Cache<String, ClilResponse> cache;
+
+    public GenerationCache(
+            @Value("${rag.generation-cache.enabled:true}") boolean enabled,
+            @Value("${rag.generation-cache.max-size:500}") long maxSize,
+            @Value("${rag.generation-cache.ttl:PT6H}") Duration ttl,
+            MeterRegistry meterRegistry) {
+        this.enabled = enabled;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "rag.generation");
+        log.info("Generation cache {} — maxSize: {}, ttl: {}", enabled ? "enabled" : "disabled", maxSize, ttl);
+    }
+
+    /**
+     * Returns the cache key for the request, or empty if the request must bypass the cache.
+     */
+    public Optional<String> keyFor(MaterialRequest request) {
+        if (!enabled
+                || Boolean.TRUE.equals(request.getUseDocumentContext())
+                || Boolean.TRUE.equals(request.getSkipCache())) {
+            return Optional.empty();
+        }
+        return Optional.of(GenerationKey.of(request));
+    }
+
+    public Optional<ClilResponse> get(String key) {
+        return Optional.ofNullable(cache.getIfPresent(key)).map(GenerationCache::copyOf);
+    }
+
+    /**
+     * Stores a successful generation; error responses are not cached.
+     */
+    public void put(String key, ClilResponse response) {
+        if (response == null || response.isError()) {
+            return;
+        }
+        cache.put(key, copyOf(response));
+    }
+
+    private static ClilResponse copyOf(ClilResponse response) {
+        return ClilResponse.builder()
+                .formattedResponse(response.getFormattedResponse())
+                .sources(response.getSources() != null
+                        ? new ArrayList<>(response.getSources())
+                        : new ArrayList<>())
+                .build();
+    }
+}
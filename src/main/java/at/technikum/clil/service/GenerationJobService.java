@@ -0,0 +1,183 @@
+package at.technikum.clil.service;
+
+import at.technikum.clil.dto.ClilResponse;
+import at.technikum.clil.dto.GenerationJobDto;
+import at.technikum.clil.dto.LessonMaterialDto;
+import at.technikum.clil.dto.MaterialCreateRequest;
+import at.technikum.clil.dto.MaterialRequest;
+import at.technikum.clil.model.GenerationJob;
+import at.technikum.clil.model.JobStatus;
+import at.technikum.clil.model.User;
+import at.technikum.clil.repository.GenerationJobRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
+import reactor.util.retry.Retry;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs generation requests as persisted background jobs on a bounded worker pool,
+ * so clients can poll for the result instead of holding a request open. Jobs take
+ * their generate slot from {@link AdmissionService} like live requests do, so they
+ * count against the same global and per-user limits.
+ */
+@Slf4j
+@Service
+public class GenerationJobService {
+
+    private static final Duration GENERATION_TIMEOUT = Duration.ofSeconds(180);
+    // A job has no client to send a 429 to; it waits for a slot a few more times instead
+    private static final int ADMISSION_RETRIES = 5;
+
+    private final GenerationJobRepository jobRepository;
+    private final RagProxyService ragProxyService;
+    private final MaterialService materialService;
+    private final AdmissionService admissionService;
+    private final ThreadPoolExecutor executor;
+
+    public GenerationJobService(GenerationJobRepository jobRepository,
+                                RagProxyService ragProxyService,
+                                MaterialService materialService,
+                                AdmissionService admissionService,
+                                @Value("${generation.jobs.pool-size:4}") int poolSize,
+                                @Value("${generation.jobs.queue-capacity:100}") int queueCapacity) {
+        this.jobRepository = jobRepository;
+        this.ragProxyService = ragProxyService;
+        this.materialService = materialService;
+        this.admissionService = admissionService;
+        this.executor = new ThreadPoolExecutor(
+                poolSize, poolSize, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                new CustomizableThreadFactory("generation-job-"),
+                new ThreadPoolExecutor.AbortPolicy());
+        log.info("Generation job pool — workers: {}, queue: {}", poolSize, queueCapacity);
+    }
+
+    /**
+     * Persists a new job and queues it for execution.
+     *
+     * @throws RejectedExecutionException if the job queue is full (the job is stored as FAILED)
+     */
+    public GenerationJobDto submit(MaterialRequest request, boolean autoSave, User owner) {
+        GenerationJob job = jobRepository.save(GenerationJob.builder()
+                .owner(owner)
+                .status(JobStatus.QUEUED)
+                .request(request)
+                .skipCache(Boolean.TRUE.equals(request.getSkipCache()))
+                .autoSave(autoSave)
+                .build());
+
+        try {
+            executor.execute(() -> run(job.getId(), owner));
+        } catch (RejectedExecutionException e) {
+            log.warn("Generation job queue full — rejecting job {} for user {}", job.getId(), owner.getUsername());
+            finish(job, JobStatus.FAILED, "Generation queue is full");
+            throw e;
+        }
+
+        log.info("Queued generation job {} for user {}", job.getId(), owner.getUsername());
+        return GenerationJobDto.fromEntity(job);
+    }
+
+    public Optional<GenerationJobDto> getJob(Long id, User owner) {
+        return jobRepository.findByIdAndOwner(id, owner)
+                .map(GenerationJobDto::fromEntity);
+    }
+
+    /**
+     * Jobs that were queued or running when the application stopped cannot be resumed.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void failInterruptedJobs() {
+        List<GenerationJob> interrupted = jobRepository.findUnfinished();
+        for (GenerationJob job : interrupted) {
+            finish(job, JobStatus.FAILED, "Interrupted by server restart");
+        }
+        if (!interrupted.isEmpty()) {
+            log.warn("Marked {} interrupted generation job(s) as failed", interrupted.size());
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private void run(Long jobId, User owner) {
+        GenerationJob job = jobRepository.findById(jobId).orElse(null);
+        if (job == null) {
+            return;
+        }
+
+        job.setStatus(JobStatus.RUNNING);
+        job.setStartedAt(LocalDateTime.now());
+        job = jobRepository.save(job);
+
+        try {
+            MaterialRequest request = job.getRequest();
+            request.setSkipCache(job.isSkipCache());
+            ClilResponse response = admissionService.admit(AdmissionService.Operation.GENERATE, owner.getId(),
+                            () -> ragProxyService.generateMaterial(request).timeout(GENERATION_TIMEOUT))
+                    .retryWhen(Retry.from(signals -> signals.concatMap(signal ->
+                            signal.failure() instanceof AdmissionRejectedException rejected
+                                    && signal.totalRetries() < ADMISSION_RETRIES
+                                    ? Mono.delay(rejected.getRetryAfter())
+                                    : Mono.error(signal.failure()))))
+                    .block();
+            job.setResult(response);
+
+            if (response == null || response.isError()) {
+                finish(job, JobStatus.FAILED, "Generation failed");
+                return;
+            }
+
+            String saveError = null;
+            if (job.isAutoSave()) {
+                try {
+                    LessonMaterialDto material = materialService.createMaterial(
+                            toCreateRequest(job.getRequest(), response), owner);
+                    job.setMaterialId(material.id());
+                } catch (IllegalArgumentException e) {
+                    log.warn("Generation job {} succeeded but material was not saved: {}", jobId, e.getMessage());
+                    saveError = "Material not saved: " + e.getMessage();
+                }
+            }
+            finish(job, JobStatus.SUCCEEDED, saveError);
+            log.info("Generation job {} finished", jobId);
+        } catch (Exception e) {
+            log.error("Generation job {} failed: {}", jobId, e.getMessage());
+            finish(job, JobStatus.FAILED, e.getMessage());
+        }
+    }
+
+    private void finish(GenerationJob job, JobStatus status, String errorMessage) {
+        job.setStatus(status);
+        job.setErrorMessage(errorMessage);
+        job.setFinishedAt(LocalDateTime.now());
+        jobRepository.save(job);
+    }
+
+    private MaterialCreateRequest toCreateRequest(MaterialRequest request, ClilResponse response) {
+        MaterialCreateRequest create = new MaterialCreateRequest();
+        create.setMaterialType(request.getMaterialType());
+        create.setTopic(request.getTopic());
+        create.setContent(response.getFormattedResponse());
+        create.setSubject(request.getSubject());
+        create.setLanguageLevel(request.getLanguageLevel());
+        create.setVocabPercentage(request.getVocabPercentage());
+        return create;
+    }
+}
@@ -0,0 +1,53 @@
+package at.technikum.clil.service;
+
+import at.technikum.clil.dto.MaterialRequest;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+
+/**
+ * Canonical, content-addressed key for a {@link MaterialRequest}.
+ * Two requests that would produce the same generation map to the same key.
+ */
+public final class GenerationKey {
+
+    private GenerationKey() {
+    }
+
+    /**
+     * SHA-256 over the normalized request fields (trimmed, nulls as empty).
+     * Every field is length-prefixed so that values cannot bleed into each other.
+     */
+    public static String of(MaterialRequest request) {
+        StringBuilder canonical = new StringBuilder();
+        append(canonical, request.getMaterialType());
+        append(canonical, request.getTopic());
+        append(canonical, request.getPrompt());
+        append(canonical, request.getSubject());
+        append(canonical, request.getLanguageLevel());
+        append(canonical, request.getVocabPercentage());
+        append(canonical, request.getContentFocus());
+        append(canonical, request.getIncludeVocabList());
+        append(canonical, request.getDescription());
+        append(canonical, request.getModelName());
+        append(canonical, request.getUseDocumentContext());
+        append(canonical, request.getUserId());
+        append(canonical, request.getContextSubject());
+        append(canonical, request.getCitationStyle());
+
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            byte[] hash = digest.digest(canonical.toString().getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(hash);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    private static void append(StringBuilder canonical, Object value) {
+        String normalized = value == null ? "" : value.toString().trim();
+        canonical.append(normalized.length()).append(':').append(normalized).append('|');
+    }
+}
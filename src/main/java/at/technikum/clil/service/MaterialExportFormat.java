@@ -0,0 +1,26 @@
+package at.technikum.clil.service;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+import java.util.Arrays;
+import java.util.Optional;
+
+/**
+ * Formats of GET /materials/export: one JSON object per line, or one HTML file per material.
+ */
+@Getter
+@RequiredArgsConstructor
+public enum MaterialExportFormat {
+    NDJSON("application/x-ndjson", "ndjson"),
+    ZIP("application/zip", "zip");
+
+    private final String contentType;
+    private final String extension;
+
+    public static Optional<MaterialExportFormat> fromParam(String value) {
+        return Arrays.stream(values())
+                .filter(format -> format.extension.equalsIgnoreCase(value))
+                .findFirst();
+    }
+}
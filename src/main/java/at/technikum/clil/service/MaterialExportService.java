@@ -0,0 +1,120 @@
+package at.technikum.clil.service;
+
+import at.technikum.clil.dto.MaterialExportDto;
+import at.technikum.clil.model.LessonMaterial;
+import at.technikum.clil.model.User;
+import at.technikum.clil.repository.LessonMaterialRepository;
+import at.technikum.clil.repository.MaterialTag;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManager;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.util.HtmlUtils;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * Export der eigenen Materialbibliothek. Die Materialien werden per Cursor gelesen und
+ * blockweise geschrieben, der Speicherbedarf hängt nicht von der Anzahl der Materialien ab.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class MaterialExportService {
+
+    private static final int CHUNK_SIZE = Integer.parseInt(LessonMaterialRepository.EXPORT_FETCH_SIZE);
+
+    private final LessonMaterialRepository repository;
+    private final EntityManager entityManager;
+    private final ObjectMapper objectMapper;
+
+    /**
+     * Schreibt alle Materialien des Benutzers (neueste zuerst) im gewünschten Format in den Stream
+     */
+    @Transactional(readOnly = true)
+    public void export(User owner, MaterialExportFormat format, OutputStream out) throws IOException {
+        log.debug("Exporting materials for user: {} as {}", owner.getUsername(), format);
+        int exported = switch (format) {
+            case NDJSON -> writeChunks(owner, (chunk, tags) -> {
+                for (LessonMaterial material : chunk) {
+                    out.write(objectMapper.writeValueAsBytes(
+                            MaterialExportDto.fromEntity(material, tags.getOrDefault(material.getId(), List.of()))));
+                    out.write('\n');
+                }
+                out.flush();
+            });
+            case ZIP -> {
+                ZipOutputStream zip = new ZipOutputStream(out, StandardCharsets.UTF_8);
+                int count = writeChunks(owner, (chunk, tags) -> {
+                    for (LessonMaterial material : chunk) {
+                        zip.putNextEntry(new ZipEntry(fileName(material)));
+                        zip.write(html(material).getBytes(StandardCharsets.UTF_8));
+                        zip.closeEntry();
+                    }
+                    zip.flush();
+                });
+                zip.finish();
+                yield count;
+            }
+        };
+        log.info("Exported {} materials for user {} as {}", exported, owner.getUsername(), format);
+    }
+
+    /**
+     * Liest die Materialien über den Cursor in Blöcken von CHUNK_SIZE, lädt deren Tags mit
+     * einer Abfrage pro Block und leert danach den Persistence Context
+     */
+    private int writeChunks(User owner, ChunkWriter writer) throws IOException {
+        int count = 0;
+        try (Stream<LessonMaterial> materials = repository.streamByOwner(owner)) {
+            Iterator<LessonMaterial> rows = materials.iterator();
+            List<LessonMaterial> chunk = new ArrayList<>(CHUNK_SIZE);
+            while (rows.hasNext()) {
+                chunk.add(rows.next());
+                if (chunk.size() == CHUNK_SIZE || !rows.hasNext()) {
+                    writer.write(chunk, tagsFor(chunk));
+                    count += chunk.size();
+                    chunk.clear();
+                    entityManager.clear();
+                }
+            }
+        }
+        return count;
+    }
+
+    private Map<Long, List<String>> tagsFor(List<LessonMaterial> chunk) {
+        return repository.findTagsByMaterialIds(chunk.stream().map(LessonMaterial::getId).toList())
+                .stream()
+                .collect(Collectors.groupingBy(MaterialTag::getMaterialId,
+                        Collectors.mapping(MaterialTag::getTag, Collectors.toList())));
+    }
+
+    private static String fileName(LessonMaterial material) {
+        String slug = material.getTopic().toLowerCase().replaceAll("[^\\p{L}\\p{N}]+", "-");
+        slug = slug.substring(0, Math.min(slug.length(), 60)).replaceAll("^-|-$", "");
+        return material.getId() + (slug.isEmpty() ? "" : "-" + slug) + ".html";
+    }
+
+    private static String html(LessonMaterial material) {
+        return "<!DOCTYPE html>\n<html>\n<head>\n<meta charset=\"utf-8\">\n<title>"
+                + HtmlUtils.htmlEscape(material.getTopic()) + "</title>\n</head>\n<body>\n"
+                + material.getFormattedHtml() + "\n</body>\n</html>\n";
+    }
+
+    @FunctionalInterface
+    private interface ChunkWriter {
+        void write(List<LessonMaterial> chunk, Map<Long, List<String>> tags) throws IOException;
+    }
+}
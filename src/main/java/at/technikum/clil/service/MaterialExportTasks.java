@@ -0,0 +1,98 @@
+package at.technikum.clil.service;
+
+import at.technikum.clil.model.User;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.support.TaskExecutorAdapter;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.async.AsyncRequestTimeoutException;
+import org.springframework.web.context.request.async.WebAsyncTask;
+
+import java.io.OutputStream;
+import java.time.Duration;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Runs material exports as async requests on a small dedicated pool. Each export holds a
+ * database connection and transaction while the client downloads, so at most
+ * {@code maxConcurrent} run at a time; further requests are rejected with
+ * {@link AdmissionRejectedException}. Exports get their own timeout instead of the global
+ * async request timeout, which would cut off large downloads.
+ */
+@Slf4j
+@Component
+public class MaterialExportTasks {
+
+    private static final Duration RETRY_AFTER = Duration.ofSeconds(30);
+
+    private final MaterialExportService exportService;
+    private final Semaphore permits;
+    private final ThreadPoolExecutor executor;
+    private final TaskExecutorAdapter taskExecutor;
+    private final Duration timeout;
+
+    public MaterialExportTasks(MaterialExportService exportService,
+                               @Value("${materials.export.max-concurrent:2}") int maxConcurrent,
+                               @Value("${materials.export.timeout:PT1H}") Duration timeout) {
+        this.exportService = exportService;
+        this.permits = new Semaphore(maxConcurrent);
+        this.timeout = timeout;
+        // A permit is returned just before the worker is free again, hence the small queue
+        this.executor = new ThreadPoolExecutor(
+                maxConcurrent, maxConcurrent, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(maxConcurrent),
+                new CustomizableThreadFactory("material-export-"),
+                new ThreadPoolExecutor.AbortPolicy());
+        this.taskExecutor = new TaskExecutorAdapter(executor);
+        log.info("Material export pool — concurrent exports: {}, timeout: {}", maxConcurrent, timeout);
+    }
+
+    /**
+     * Reserves an export slot and returns the task writing the export to the response.
+     *
+     * @throws AdmissionRejectedException if {@code maxConcurrent} exports are already running
+     */
+    public WebAsyncTask<Void> start(User owner, MaterialExportFormat format, Callable<OutputStream> out) {
+        if (!permits.tryAcquire()) {
+            log.warn("Material export rejected for user {}: all export slots busy", owner.getUsername());
+            throw new AdmissionRejectedException("Too many concurrent exports", RETRY_AFTER);
+        }
+
+        // The slot is returned by whoever claims the task first: the export when it runs,
+        // or the completion callback if the request ended before the export started
+        AtomicBoolean claimed = new AtomicBoolean();
+        WebAsyncTask<Void> task = new WebAsyncTask<>(timeout.toMillis(), taskExecutor, () -> {
+            if (!claimed.compareAndSet(false, true)) {
+                return null;
+            }
+            try {
+                exportService.export(owner, format, out.call());
+            } finally {
+                permits.release();
+            }
+            return null;
+        });
+        task.onTimeout(() -> {
+            log.warn("Material export for user {} timed out after {}", owner.getUsername(), timeout);
+            throw new AsyncRequestTimeoutException();
+        });
+        task.onCompletion(() -> {
+            if (claimed.compareAndSet(false, true)) {
+                permits.release();
+            }
+        });
+        return task;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+}
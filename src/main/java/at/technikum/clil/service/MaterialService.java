@@ -1,19 +1,48 @@
 package at.technikum.clil.service;
 
 import at.technikum.clil.dto.LessonMaterialDto;
+import at.technikum.clil.dto.LessonMaterialSummaryDto;
+import at.technikum.clil.dto.MaterialBulkResult;
+import at.technikum.clil.dto.MaterialBulkUpdateRequest;
 import at.technikum.clil.dto.MaterialCreateRequest;
+import at.technikum.clil.dto.MaterialFilter;
+import at.technikum.clil.dto.MaterialImportResult;
+import at.technikum.clil.dto.MaterialPage;
+import at.technikum.clil.dto.MaterialSearchResultDto;
+import at.technikum.clil.dto.MaterialStats;
+import at.technikum.clil.dto.SearchPage;
 import at.technikum.clil.dto.MaterialUpdateRequest;
+import at.technikum.clil.model.ContentBlob;
 import at.technikum.clil.model.LessonMaterial;
 import at.technikum.clil.model.User;
 import at.technikum.clil.repository.LessonMaterialRepository;
+import at.technikum.clil.repository.MaterialSearchHit;
+import at.technikum.clil.repository.MaterialSummary;
+import at.technikum.clil.repository.MaterialTag;
+import at.technikum.clil.repository.MaterialTypeCount;
+import jakarta.persistence.EntityManager;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.core.namedparam.SqlParameterSource;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Slf4j
 @Service
@@ -21,7 +50,28 @@ import java.util.Optional;
 @Transactional
 public class MaterialService {
 
+    private static final int MAX_TAG_FILTERS = 20;
+    private static final int MAX_QUERY_LENGTH = 200;
+
     private final LessonMaterialRepository repository;
+    private final ContentStore contentStore;
+    private final EntityManager entityManager;
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    @Value("${materials.page.default-size:50}")
+    private int defaultPageSize;
+
+    @Value("${materials.page.max-size:200}")
+    private int maxPageSize;
+
+    @Value("${materials.import.max-size:5000}")
+    private int maxImportSize;
+
+    @Value("${materials.bulk.max-size:1000}")
+    private int maxBulkSize;
+
+    @Value("${spring.jpa.properties.hibernate.jdbc.batch_size:50}")
+    private int batchSize;
 
     /**
      * Erstellt ein neues Material
@@ -29,25 +79,16 @@ public class MaterialService {
     public LessonMaterialDto createMaterial(MaterialCreateRequest request, User owner) {
         log.debug("Creating new material: {}", request.getTopic());
 
-        // Use aiResponse if provided, otherwise use content
-        String content = request.getAiResponse() != null ? request.getAiResponse() : request.getContent();
+        String content = contentOf(request);
 
         // Validation
         validateMaterialRequest(request.getMaterialType(), request.getTopic(), content);
 
-        LessonMaterial material = LessonMaterial.builder()
-                .materialType(request.getMaterialType())
-                .topic(request.getTopic())
-                .aiResponse(content)
-                .formattedHtml(request.getFormattedHtml() != null ? request.getFormattedHtml() : content)
-                .subject(request.getSubject())
-                .languageLevel(request.getLanguageLevel())
-                .vocabPercentage(request.getVocabPercentage())
-                .tags(request.getTags())
-                .owner(owner)
-                .build();
+        LessonMaterial material = newMaterial(request, owner,
+                contentStore.store(content), formattedBody(request.getFormattedHtml(), content));
         
         LessonMaterial saved = repository.save(material);
+        indexForSearch(saved, content);
         log.info("Created material with ID: {} - Type: {}, Subject: {}, Language: {}", 
             saved.getId(), 
             saved.getMaterialType(), 
@@ -58,6 +99,65 @@ public class MaterialService {
         return LessonMaterialDto.fromEntity(saved);
     }
 
+    /**
+     * Importiert viele Materialien auf einmal. Inhalte, Materialzeilen, Tags und Suchvektoren
+     * werden in JDBC-Batches geschrieben, also mit einer Anweisung pro Batch statt pro Material.
+     */
+    public MaterialImportResult importMaterials(List<MaterialCreateRequest> requests, User owner) {
+        if (requests == null || requests.isEmpty()) {
+            throw new IllegalArgumentException("No materials to import");
+        }
+        if (requests.size() > maxImportSize) {
+            throw new IllegalArgumentException("Too many materials (max " + maxImportSize + ")");
+        }
+        for (int i = 0; i < requests.size(); i++) {
+            MaterialCreateRequest request = requests.get(i);
+            try {
+                validateMaterialRequest(request.getMaterialType(), request.getTopic(), contentOf(request));
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("Material " + i + ": " + e.getMessage());
+            }
+        }
+
+        Map<String, ContentBlob> blobs = contentStore.storeAll(requests.stream()
+                .flatMap(request -> Stream.of(contentOf(request), request.getFormattedHtml()))
+                .toList());
+
+        List<Long> ids = new ArrayList<>(requests.size());
+        for (int from = 0; from < requests.size(); from += batchSize) {
+            List<MaterialCreateRequest> chunk = requests.subList(from, Math.min(from + batchSize, requests.size()));
+            List<LessonMaterial> materials = chunk.stream()
+                    .map(request -> {
+                        String content = contentOf(request);
+                        String formattedHtml = request.getFormattedHtml();
+                        return newMaterial(request, owner, blobs.get(content),
+                                formattedHtml == null || formattedHtml.equals(content) ? null : blobs.get(formattedHtml));
+                    })
+                    .toList();
+            // One batched INSERT for the materials and one for their tags; clearing keeps
+            // the persistence context (and the dirty check on flush) at one chunk
+            repository.saveAll(materials);
+            entityManager.flush();
+
+            SqlParameterSource[] searchVectors = new SqlParameterSource[materials.size()];
+            for (int i = 0; i < materials.size(); i++) {
+                LessonMaterial material = materials.get(i);
+                ids.add(material.getId());
+                searchVectors[i] = new MapSqlParameterSource()
+                        .addValue("id", material.getId())
+                        .addValue("topic", material.getTopic())
+                        .addValue("tags", material.getTags() == null ? null : String.join(" ", material.getTags()))
+                        .addValue("description", material.getDescription())
+                        .addValue("body", contentOf(chunk.get(i)));
+            }
+            jdbcTemplate.batchUpdate(LessonMaterialRepository.UPDATE_SEARCH_VECTOR, searchVectors);
+            entityManager.clear();
+        }
+
+        log.info("Imported {} materials for user {}", ids.size(), owner.getUsername());
+        return MaterialImportResult.of(ids);
+    }
+
     /**
      * Aktualisiert ein bestehendes Material
      */
@@ -75,10 +175,14 @@ public class MaterialService {
                         existingMaterial.setTopic(request.getTopic());
                     }
                     if (request.getContent() != null) {
-                        existingMaterial.setAiResponse(request.getContent());
+                        // Keep the previous formatted version, as before bodies were shared
+                        if (existingMaterial.getFormattedBody() == null) {
+                            existingMaterial.setFormattedBody(existingMaterial.getBody());
+                        }
+                        existingMaterial.setBody(contentStore.store(request.getContent()));
                     }
                     if (request.getFormattedHtml() != null) {
-                        existingMaterial.setFormattedHtml(request.getFormattedHtml());
+                        existingMaterial.setFormattedBody(contentStore.store(request.getFormattedHtml()));
                     }
                     if (request.getSubject() != null) {
                         existingMaterial.setSubject(request.getSubject());
@@ -106,6 +210,9 @@ public class MaterialService {
                     }
                     
                     LessonMaterial updated = repository.save(existingMaterial);
+                    if (request.getTopic() != null || request.getTags() != null || request.getContent() != null) {
+                        indexForSearch(updated, updated.getAiResponse());
+                    }
                     log.info("Updated material with ID: {} - Fields updated: {}", 
                         updated.getId(), 
                         getUpdatedFields(request)
@@ -132,16 +239,128 @@ public class MaterialService {
     }
 
     /**
-     * Ruft alle Materialien ab
+     * Ruft eine Seite der Materialien ab (neueste zuerst), fortgesetzt ab dem Cursor der vorherigen Seite.
+     * Liefert nur Zusammenfassungen ohne Inhalt; der volle Text kommt über getMaterialById.
+     * Optional gefiltert nach Tags: alle angegebenen Tags (matchAllTags) oder mindestens einer,
+     * sowie nach Typ, Fach, Sprachniveau und Änderungsdatum. Die erste Seite enthält die Gesamtzahl.
+     */
+    @Transactional(readOnly = true)
+    public MaterialPage<LessonMaterialSummaryDto> getMaterials(User owner, String cursor, Integer limit,
+                                                               Collection<String> tags, boolean matchAllTags,
+                                                               MaterialFilter filter) {
+        int pageSize = limit == null ? defaultPageSize : Math.max(1, Math.min(limit, maxPageSize));
+        Set<String> tagFilter = normalizeTags(tags);
+        log.debug("Fetching materials for user: {} (cursor={}, limit={}, tags={}, all={}, filter={})",
+                owner.getUsername(), cursor, pageSize, tagFilter, matchAllTags, filter);
+
+        // One extra row tells us whether another page follows without a count query
+        PageRequest window = PageRequest.ofSize(pageSize + 1);
+        MaterialCursor after = cursor == null || cursor.isBlank() ? null : MaterialCursor.decode(cursor);
+        long required = matchAllTags ? tagFilter.size() : 1;
+        List<MaterialSummary> rows;
+        if (tagFilter.isEmpty()) {
+            rows = after == null
+                    ? repository.findSummaryPageByOwner(owner, filter.materialType(), filter.subject(),
+                            filter.languageLevel(), filter.modifiedSince(), window)
+                    : repository.findSummaryPageByOwnerAfter(owner, filter.materialType(), filter.subject(),
+                            filter.languageLevel(), filter.modifiedSince(), after.createdAt(), after.id(), window);
+        } else {
+            rows = after == null
+                    ? repository.findSummaryPageByOwnerAndTags(owner, filter.materialType(), filter.subject(),
+                            filter.languageLevel(), filter.modifiedSince(), tagFilter, required, window)
+                    : repository.findSummaryPageByOwnerAndTagsAfter(owner, filter.materialType(), filter.subject(),
+                            filter.languageLevel(), filter.modifiedSince(), tagFilter, required,
+                            after.createdAt(), after.id(), window);
+        }
+
+        boolean hasMore = rows.size() > pageSize;
+        List<MaterialSummary> page = hasMore ? rows.subList(0, pageSize) : rows;
+        String nextCursor = hasMore ? MaterialCursor.of(page.get(page.size() - 1)).encode() : null;
+
+        // Only the first page carries the total; it needs a count query only if more pages follow
+        Long total = null;
+        if (after == null) {
+            total = hasMore ? countMaterials(owner, filter, tagFilter, required) : (long) page.size();
+        }
+
+        Map<Long, List<String>> tagsById = tagsFor(page.stream().map(MaterialSummary::getId).toList());
+        return new MaterialPage<>(page.stream()
+                .map(summary -> LessonMaterialSummaryDto.fromProjection(
+                        summary, tagsById.getOrDefault(summary.getId(), List.of())))
+                .toList(), nextCursor, total);
+    }
+
+    private long countMaterials(User owner, MaterialFilter filter, Set<String> tagFilter, long required) {
+        return tagFilter.isEmpty()
+                ? repository.countByOwner(owner, filter.materialType(), filter.subject(),
+                        filter.languageLevel(), filter.modifiedSince())
+                : repository.countByOwnerAndTags(owner, filter.materialType(), filter.subject(),
+                        filter.languageLevel(), filter.modifiedSince(), tagFilter, required);
+    }
+
+    /**
+     * Anzahl aller Materialien des Benutzers, gesamt und je Materialtyp (für das Dashboard)
+     */
+    @Transactional(readOnly = true)
+    public MaterialStats getMaterialStats(User owner) {
+        Map<String, Long> byType = new TreeMap<>();
+        for (MaterialTypeCount count : repository.countByOwnerGroupedByType(owner)) {
+            byType.put(count.getMaterialType(), count.getCount());
+        }
+        long total = byType.values().stream().mapToLong(Long::longValue).sum();
+        return new MaterialStats(total, byType);
+    }
+
+    /**
+     * Volltextsuche (Deutsch und Englisch) in den eigenen Materialien, nach Relevanz sortiert
      */
     @Transactional(readOnly = true)
-    public List<LessonMaterialDto> getAllMaterials(User owner) {
-        log.debug("Fetching all materials for user: {}", owner.getUsername());
+    public SearchPage<MaterialSearchResultDto> searchMaterials(User owner, String query, int page, Integer limit) {
+        if (query == null || query.isBlank()) {
+            throw new IllegalArgumentException("Search query cannot be empty");
+        }
+        if (query.length() > MAX_QUERY_LENGTH) {
+            throw new IllegalArgumentException("Search query too long (max " + MAX_QUERY_LENGTH + " characters)");
+        }
+        int pageSize = limit == null ? defaultPageSize : Math.max(1, Math.min(limit, maxPageSize));
+        int pageNumber = Math.max(page, 0);
+        log.debug("Searching materials for user: {} (query={}, page={}, size={})",
+                owner.getUsername(), query, pageNumber, pageSize);
 
-        return repository.findByOwnerOrderByCreatedAtDesc(owner)
+        List<MaterialSearchHit> hits = repository.searchByOwner(
+                owner.getId(), query.trim(), pageSize + 1, (long) pageNumber * pageSize);
+        boolean hasMore = hits.size() > pageSize;
+        if (hasMore) {
+            hits = hits.subList(0, pageSize);
+        }
+
+        List<Long> ids = hits.stream().map(MaterialSearchHit::getId).toList();
+        Map<Long, MaterialSummary> summaries = ids.isEmpty() ? Map.of() : repository.findSummariesByIds(ids)
                 .stream()
-                .map(LessonMaterialDto::fromEntity)
+                .collect(Collectors.toMap(MaterialSummary::getId, Function.identity()));
+        Map<Long, List<String>> tagsById = tagsFor(ids);
+
+        List<MaterialSearchResultDto> results = hits.stream()
+                .filter(hit -> summaries.containsKey(hit.getId()))
+                .map(hit -> new MaterialSearchResultDto(
+                        LessonMaterialSummaryDto.fromProjection(
+                                summaries.get(hit.getId()), tagsById.getOrDefault(hit.getId(), List.of())),
+                        hit.getRank()))
                 .toList();
+        return new SearchPage<>(results, pageNumber, pageSize, hasMore);
+    }
+
+    /**
+     * Lädt die Tags mehrerer Materialien mit einer Abfrage
+     */
+    private Map<Long, List<String>> tagsFor(List<Long> materialIds) {
+        if (materialIds.isEmpty()) {
+            return Map.of();
+        }
+        return repository.findTagsByMaterialIds(materialIds)
+                .stream()
+                .collect(Collectors.groupingBy(MaterialTag::getMaterialId,
+                        Collectors.mapping(MaterialTag::getTag, Collectors.toList())));
     }
 
     /**
@@ -162,11 +381,7 @@ public class MaterialService {
     public boolean deleteMaterial(Long id, User owner) {
         log.debug("Deleting material with ID: {}", id);
 
-        Optional<LessonMaterial> material = repository.findById(id)
-                .filter(m -> m.getOwner() != null && m.getOwner().getId().equals(owner.getId()));
-
-        if (material.isPresent()) {
-            repository.deleteById(id);
+        if (repository.deleteOwned(owner.getId(), List.of(id)) > 0) {
             log.info("Deleted material with ID: {}", id);
             return true;
         }
@@ -176,16 +391,110 @@ public class MaterialService {
     }
 
     /**
-     * Ruft Materialien nach Typ ab
+     * Löscht mehrere eigene Materialien samt Tags mit einer Anweisung; fremde oder
+     * unbekannte IDs werden übersprungen
      */
-    @Transactional(readOnly = true)
-    public List<LessonMaterialDto> getMaterialsByType(String materialType) {
-        log.debug("Fetching materials by type: {}", materialType);
-        
-        return repository.findByMaterialType(materialType)
-                .stream()
-                .map(LessonMaterialDto::fromEntity)
-                .toList();
+    public MaterialBulkResult deleteMaterials(List<Long> ids, User owner) {
+        Set<Long> targets = bulkTargets(ids);
+        int deleted = repository.deleteOwned(owner.getId(), targets);
+        log.info("Bulk deleted {} of {} materials for user {}", deleted, targets.size(), owner.getUsername());
+        return MaterialBulkResult.of(targets, deleted);
+    }
+
+    /**
+     * Ändert Fach und/oder Tags mehrerer eigener Materialien mengenbasiert: eine Anweisung pro
+     * Änderung statt Laden und Speichern jedes einzelnen Materials
+     */
+    public MaterialBulkResult updateMaterials(MaterialBulkUpdateRequest request, User owner) {
+        Set<Long> targets = bulkTargets(request.getIds());
+        Set<String> added = normalizeTags(request.getAddTags());
+        Set<String> removed = new LinkedHashSet<>(normalizeTags(request.getRemoveTags()));
+        removed.removeAll(added);
+        if (request.getSubject() == null && added.isEmpty() && removed.isEmpty()) {
+            throw new IllegalArgumentException("Nothing to update");
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        int updated = 0;
+        if (request.getSubject() != null) {
+            updated = repository.updateSubjectOwned(owner, targets, request.getSubject(), now);
+        }
+        if (!added.isEmpty() || !removed.isEmpty()) {
+            if (!removed.isEmpty()) {
+                repository.removeTagsOwned(owner.getId(), targets, removed);
+            }
+            if (!added.isEmpty()) {
+                repository.addTagsOwned(owner.getId(), targets, added.toArray(String[]::new));
+            }
+            updated = repository.refreshTagsOwned(owner.getId(), targets, now);
+        }
+
+        log.info("Bulk updated {} of {} materials for user {} - subject: {}, added tags: {}, removed tags: {}",
+                updated, targets.size(), owner.getUsername(), request.getSubject(), added, removed);
+        return MaterialBulkResult.of(targets, updated);
+    }
+
+    private Set<Long> bulkTargets(List<Long> ids) {
+        Set<Long> targets = ids == null ? Set.of() : ids.stream()
+                .filter(id -> id != null)
+                .collect(Collectors.toCollection(LinkedHashSet::new));
+        if (targets.isEmpty()) {
+            throw new IllegalArgumentException("No material ids given");
+        }
+        if (targets.size() > maxBulkSize) {
+            throw new IllegalArgumentException("Too many materials (max " + maxBulkSize + ")");
+        }
+        return targets;
+    }
+
+    private LessonMaterial newMaterial(MaterialCreateRequest request, User owner,
+                                       ContentBlob body, ContentBlob formattedBody) {
+        return LessonMaterial.builder()
+                .materialType(request.getMaterialType())
+                .topic(request.getTopic())
+                .body(body)
+                .formattedBody(formattedBody)
+                .subject(request.getSubject())
+                .languageLevel(request.getLanguageLevel())
+                .vocabPercentage(request.getVocabPercentage())
+                .tags(request.getTags())
+                .owner(owner)
+                .build();
+    }
+
+    // aiResponse takes precedence over content
+    private static String contentOf(MaterialCreateRequest request) {
+        return request.getAiResponse() != null ? request.getAiResponse() : request.getContent();
+    }
+
+    /**
+     * Nur abweichende formatierte Versionen werden separat referenziert; sonst gilt der Inhalt
+     */
+    private ContentBlob formattedBody(String formattedHtml, String content) {
+        return formattedHtml == null || formattedHtml.equals(content) ? null : contentStore.store(formattedHtml);
+    }
+
+    private void indexForSearch(LessonMaterial material, String body) {
+        repository.updateSearchVector(
+                material.getId(),
+                material.getTopic(),
+                material.getTags() == null ? null : String.join(" ", material.getTags()),
+                material.getDescription(),
+                body);
+    }
+
+    private Set<String> normalizeTags(Collection<String> tags) {
+        if (tags == null) {
+            return Set.of();
+        }
+        Set<String> normalized = tags.stream()
+                .filter(tag -> tag != null && !tag.isBlank())
+                .map(String::trim)
+                .collect(Collectors.toCollection(LinkedHashSet::new));
+        if (normalized.size() > MAX_TAG_FILTERS) {
+            throw new IllegalArgumentException("Too many tags (max " + MAX_TAG_FILTERS + ")");
+        }
+        return normalized;
     }
 
     /**
@@ -0,0 +1,128 @@
+package at.technikum.clil.service;
+
+import at.technikum.clil.dto.ModelCatalog;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * In-memory model catalog, loaded at startup and refreshed in the background.
+ * Reads are served from memory; a failed refresh keeps the previous catalog,
+ * so /models stays available while the RAG service is down. Until a catalog
+ * has been loaded, the fallback model is served.
+ */
+@Slf4j
+@Component
+public class ModelRegistry {
+
+    // Served while no catalog could be loaded yet, like the proxy did before the registry
+    static final ModelCatalog FALLBACK = new ModelCatalog("fallback", List.of("gpt-4o-mini"), null);
+
+    private final RagProxyService ragProxyService;
+    private final ProxyMetrics metrics;
+    private final SingleFlight<ModelCatalog> refreshFlight;
+    private final Duration refreshInterval;
+    private final Duration retryInitialDelay;
+    private final Duration retryMaxDelay;
+    private final Clock clock;
+    private final AtomicReference<ModelCatalog> catalog = new AtomicReference<>();
+
+    // Refresh schedule: refresh-interval after a success, a doubling delay after failures
+    private volatile Instant nextRefreshAt = Instant.MIN;
+    private volatile Duration retryDelay;
+
+    @Autowired
+    public ModelRegistry(RagProxyService ragProxyService, ProxyMetrics metrics, MeterRegistry meterRegistry,
+                         @Value("${rag.models.refresh-interval:PT1H}") Duration refreshInterval,
+                         @Value("${rag.models.retry.initial-delay:PT5S}") Duration retryInitialDelay,
+                         @Value("${rag.models.retry.max-delay:PT5M}") Duration retryMaxDelay) {
+        this(ragProxyService, metrics, meterRegistry, refreshInterval, retryInitialDelay, retryMaxDelay,
+                Clock.systemUTC());
+    }
+
+    ModelRegistry(RagProxyService ragProxyService, ProxyMetrics metrics, MeterRegistry meterRegistry,
+                  Duration refreshInterval, Duration retryInitialDelay, Duration retryMaxDelay, Clock clock) {
+        this.ragProxyService = ragProxyService;
+        this.metrics = metrics;
+        this.refreshFlight = new SingleFlight<>(meterRegistry.counter("rag.models.refresh.coalesced"));
+        this.refreshInterval = refreshInterval;
+        this.retryInitialDelay = retryInitialDelay;
+        this.retryMaxDelay = retryMaxDelay;
+        this.clock = clock;
+    }
+
+    /**
+     * Current catalog. Before the first successful load, callers join the running refresh if
+     * one is due and otherwise get the fallback at once, so an outage does not make every
+     * request wait for the RAG timeout.
+     */
+    public Mono<ModelCatalog> current() {
+        ModelCatalog current = catalog.get();
+        if (current != null) {
+            return Mono.just(current);
+        }
+        return isRefreshDue() ? refresh().onErrorReturn(FALLBACK) : Mono.just(FALLBACK);
+    }
+
+    @Scheduled(initialDelay = 0, fixedDelayString = "${rag.models.check-interval:PT5S}")
+    public void scheduledRefresh() {
+        if (isRefreshDue()) {
+            refresh().subscribe(fresh -> { }, error -> { });
+        }
+    }
+
+    /**
+     * Loads the catalog from the RAG service; concurrent calls share one request.
+     */
+    public Mono<ModelCatalog> refresh() {
+        return refreshFlight.execute("models", () -> Mono.defer(ragProxyService::fetchModelCatalog)
+                        .flatMap(fresh -> fresh.models().isEmpty()
+                                ? Mono.<ModelCatalog>error(new IllegalStateException("RAG service returned no models"))
+                                : Mono.just(fresh))
+                        .doOnNext(this::refreshed)
+                        .doOnError(this::refreshFailed)
+                        .flux())
+                .next();
+    }
+
+    private boolean isRefreshDue() {
+        return !clock.instant().isBefore(nextRefreshAt);
+    }
+
+    private void refreshed(ModelCatalog fresh) {
+        catalog.set(fresh);
+        retryDelay = null;
+        nextRefreshAt = clock.instant().plus(refreshInterval);
+        metrics.setKnownModels(fresh.models());
+        log.info("Model catalog refreshed — provider: {}, {} model(s)", fresh.provider(), fresh.models().size());
+    }
+
+    private void refreshFailed(Throwable error) {
+        Duration delay = retryDelay == null ? retryInitialDelay : retryDelay.multipliedBy(2);
+        if (delay.compareTo(retryMaxDelay) > 0) {
+            delay = retryMaxDelay;
+        }
+        retryDelay = delay;
+        nextRefreshAt = clock.instant().plus(delay);
+
+        metrics.fallback("models", error);
+        ModelCatalog stale = catalog.get();
+        if (stale != null) {
+            log.warn("Model catalog refresh failed, keeping catalog from {}, next attempt in {}: {}",
+                    stale.refreshedAt(), delay, error.getMessage());
+        } else {
+            log.error("Model catalog refresh failed, serving the fallback model, next attempt in {}: {}",
+                    delay, error.getMessage());
+        }
+    }
+}
@@ -0,0 +1,108 @@
+package at.technikum.clil.service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+/**
+ * Timers, fallback counters and in-flight gauges for calls to the RAG service.
+ * Timers ({@code rag.proxy.requests}) are tagged by operation, model and outcome:
+ * success, fallback (the RAG service answered with its error HTML), error or cancelled.
+ */
+@Component
+public class ProxyMetrics {
+
+    private static final String NO_MODEL = "none";
+    private static final String OTHER_MODEL = "other";
+
+    private final MeterRegistry meterRegistry;
+    private final Map<String, AtomicInteger> inFlight = new ConcurrentHashMap<>();
+    private volatile Set<String> knownModels = Set.of();
+
+    public ProxyMetrics(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    /**
+     * Model names come from clients, so only catalog models become tag values.
+     */
+    public void setKnownModels(Collection<String> models) {
+        this.knownModels = Set.copyOf(models);
+    }
+
+    public <T> Function<Mono<T>, Mono<T>> timed(String operation, String model) {
+        return timed(operation, model, value -> false);
+    }
+
+    public <T> Function<Mono<T>, Mono<T>> timed(String operation, String model, Predicate<T> isFallback) {
+        return call -> Mono.defer(() -> {
+            long start = System.nanoTime();
+            AtomicInteger active = inFlight(operation);
+            active.incrementAndGet();
+            return call
+                    .doOnSuccess(value -> record(operation, model,
+                            value != null && isFallback.test(value) ? "fallback" : "success", start))
+                    .doOnError(error -> record(operation, model, "error", start))
+                    .doOnCancel(() -> record(operation, model, "cancelled", start))
+                    .doFinally(signal -> active.decrementAndGet());
+        });
+    }
+
+    public <T> Function<Flux<T>, Flux<T>> timedMany(String operation, String model) {
+        return call -> Flux.defer(() -> {
+            long start = System.nanoTime();
+            AtomicInteger active = inFlight(operation);
+            active.incrementAndGet();
+            return call
+                    .doOnComplete(() -> record(operation, model, "success", start))
+                    .doOnError(error -> record(operation, model, "error", start))
+                    .doOnCancel(() -> record(operation, model, "cancelled", start))
+                    .doFinally(signal -> active.decrementAndGet());
+        });
+    }
+
+    /**
+     * Counts an onErrorResume branch that replaced a failed upstream call with fallback content.
+     */
+    public void fallback(String operation, Throwable error) {
+        meterRegistry.counter("rag.proxy.fallbacks",
+                "operation", operation,
+                "exception", error.getClass().getSimpleName()).increment();
+    }
+
+    private void record(String operation, String model, String outcome, long start) {
+        Timer.builder("rag.proxy.requests")
+                .tag("operation", operation)
+                .tag("model", modelTag(model))
+                .tag("outcome", outcome)
+                .publishPercentileHistogram()
+                .register(meterRegistry)
+                .record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+    }
+
+    private AtomicInteger inFlight(String operation) {
+        return inFlight.computeIfAbsent(operation, op -> meterRegistry.gauge(
+                "rag.proxy.inflight",
+                Tags.of("operation", op),
+                new AtomicInteger()));
+    }
+
+    private String modelTag(String model) {
+        if (model == null || model.isBlank()) {
+            return NO_MODEL;
+        }
+        return knownModels.contains(model) ? model : OTHER_MODEL;
+    }
+}
@@ -2,68 +2,110 @@ package at.technikum.clil.service;
 
 import at.technikum.clil.dto.ClilResponse;
 import at.technikum.clil.dto.MaterialRequest;
+import at.technikum.clil.dto.ModelCatalog;
+import io.micrometer.core.instrument.MeterRegistry;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.MediaType;
+import org.springframework.http.codec.ServerSentEvent;
 import org.springframework.stereotype.Service;
 import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
+import java.time.Instant;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 
 @Slf4j
 @Service
 public class RagProxyService {
 
     private final WebClient webClient;
+    private final RagTransport transport;
+    private final ProxyMetrics metrics;
+    private final GenerationCache generationCache;
+    private final SingleFlight<ClilResponse> generateFlight;
+    private final SingleFlight<ServerSentEvent<Map<String, Object>>> streamFlight;
 
-    public RagProxyService(@Qualifier("ragServiceWebClient") WebClient webClient) {
+    public RagProxyService(@Qualifier("ragServiceWebClient") WebClient webClient,
+                           RagTransport transport,
+                           ProxyMetrics metrics,
+                           GenerationCache generationCache,
+                           MeterRegistry meterRegistry) {
         this.webClient = webClient;
+        this.transport = transport;
+        this.metrics = metrics;
+        this.generationCache = generationCache;
+        this.generateFlight = new SingleFlight<>(
+                meterRegistry.counter("rag.generation.coalesced", "operation", "generate"));
+        this.streamFlight = new SingleFlight<>(
+                meterRegistry.counter("rag.generation.coalesced", "operation", "stream"));
     }
 
     /**
-     * Lists available LLM models from the Python RAG service.
+     * Fetches the model catalog (provider + available models) from the Python RAG service.
+     * Errors are propagated so that {@link ModelRegistry} can keep serving its last catalog.
      */
     @SuppressWarnings("unchecked")
-    public Mono<List<String>> listAvailableModels() {
+    public Mono<ModelCatalog> fetchModelCatalog() {
         log.info("Fetching available models from RAG service");
 
         return webClient.get()
                 .uri("/rag/models")
+                .httpRequest(transport.timeout(RagTransport.Route.MODELS))
                 .retrieve()
                 .bodyToMono(new ParameterizedTypeReference<Map<String, Object>>() {})
+                .transform(call -> transport.guard(RagTransport.Route.MODELS, call))
+                .transform(metrics.timed("models", null))
                 .map(response -> {
-                    List<String> models = (List<String>) response.get("models");
-                    if (models == null || models.isEmpty()) {
+                    List<String> models = (List<String>) response.getOrDefault("models", List.of());
+                    if (models.isEmpty()) {
                         log.warn("No models returned from RAG service");
-                        return List.of("gpt-4o-mini");
                     }
                     log.info("RAG service models ({}): {}", response.get("provider"), models);
-                    return models;
-                })
-                .onErrorResume(error -> {
-                    log.error("Error fetching models from RAG service: {}", error.getMessage());
-                    return Mono.just(List.of("gpt-4o-mini"));
+                    return new ModelCatalog((String) response.get("provider"), List.copyOf(models), Instant.now());
                 });
     }
 
     /**
      * Proxies a generation request to the Python RAG service.
      * Always returns a ClilResponse (errors are wrapped in HTML, matching the
-     * existing frontend contract).
+     * existing frontend contract). Identical requests are answered from the
+     * {@link GenerationCache} when possible, and identical in-flight requests
+     * share a single upstream call.
      */
     public Mono<ClilResponse> generateMaterial(MaterialRequest request) {
+        Optional<String> cacheKey = generationCache.keyFor(request);
+        Optional<ClilResponse> cached = cacheKey.flatMap(generationCache::get);
+        if (cached.isPresent()) {
+            log.info("Generation served from cache — model: {}", request.getModelName());
+            return Mono.just(cached.get());
+        }
+
+        String flightKey = cacheKey.orElseGet(() -> GenerationKey.of(request));
+        return generateFlight.execute(flightKey, () -> callGenerate(request, cacheKey).flux())
+                .next();
+    }
+
+    private Mono<ClilResponse> callGenerate(MaterialRequest request, Optional<String> cacheKey) {
         log.info("Proxying generate request to RAG service — model: {}", request.getModelName());
 
         return webClient.post()
                 .uri("/rag/generate")
+                .httpRequest(transport.timeout(RagTransport.Route.GENERATE))
                 .bodyValue(request)
                 .retrieve()
                 .bodyToMono(ClilResponse.class)
+                .transform(call -> transport.guard(RagTransport.Route.GENERATE, call))
+                .transform(metrics.timed("generate", request.getModelName(), ClilResponse::isError))
                 .doOnSuccess(resp -> log.info("Generation proxied successfully"))
+                .doOnNext(resp -> cacheKey.ifPresent(key -> generationCache.put(key, resp)))
                 .onErrorResume(error -> {
                     log.error("Error proxying generation: {}", error.getMessage());
+                    metrics.fallback("generate", error);
                     return Mono.just(ClilResponse.builder()
                             .formattedResponse(
                                     "<div class='error'><h3>Error generating content</h3><p>"
@@ -71,4 +113,44 @@ public class RagProxyService {
                             .build());
                 });
     }
+
+    /**
+     * Streams a generation request from the Python RAG service.
+     * Upstream events ("chunk", "sources", "done") are relayed as they arrive;
+     * failures are turned into a terminal "error" event carrying the same
+     * error HTML as {@link #generateMaterial(MaterialRequest)}. Identical
+     * in-flight streams share one upstream; late joiners get the chunks so far.
+     */
+    public Flux<ServerSentEvent<Map<String, Object>>> streamMaterial(MaterialRequest request) {
+        return streamFlight.execute(GenerationKey.of(request), () -> callStream(request));
+    }
+
+    private Flux<ServerSentEvent<Map<String, Object>>> callStream(MaterialRequest request) {
+        log.info("Proxying streaming generate request to RAG service — model: {}", request.getModelName());
+
+        return webClient.post()
+                .uri("/rag/generate/stream")
+                .accept(MediaType.TEXT_EVENT_STREAM)
+                .httpRequest(transport.timeout(RagTransport.Route.GENERATE))
+                .bodyValue(request)
+                .retrieve()
+                .bodyToFlux(new ParameterizedTypeReference<ServerSentEvent<Map<String, Object>>>() {})
+                .transform(call -> transport.guard(RagTransport.Route.GENERATE, call))
+                .transform(metrics.timedMany("stream", request.getModelName()))
+                .map(event -> ServerSentEvent.<Map<String, Object>>builder()
+                        .event(event.event())
+                        .data(event.data() != null ? event.data() : Map.of())
+                        .build())
+                .doOnComplete(() -> log.info("Streaming generation proxied successfully"))
+                .onErrorResume(error -> {
+                    log.error("Error proxying streaming generation: {}", error.getMessage());
+                    metrics.fallback("stream", error);
+                    return Flux.just(ServerSentEvent.<Map<String, Object>>builder()
+                            .event("error")
+                            .data(Map.of("formattedResponse",
+                                    "<div class='error'><h3>Error generating content</h3><p>"
+                                            + error.getMessage() + "</p></div>"))
+                            .build());
+                });
+    }
 }
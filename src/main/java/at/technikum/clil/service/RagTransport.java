@@ -0,0 +1,117 @@
+package at.technikum.clil.service;
+
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.reactor.circuitbreaker.operator.CircuitBreakerOperator;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.client.reactive.ClientHttpRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClientRequestException;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.netty.http.client.HttpClientRequest;
+import reactor.util.retry.Retry;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Consumer;
+
+/**
+ * Per-route call policy for the RAG service: response timeouts, bounded
+ * jittered retries for idempotent routes and the shared circuit breaker.
+ */
+@Slf4j
+@Component
+public class RagTransport {
+
+    public enum Route {
+        MODELS(true),
+        GENERATE(false),
+        INGEST(false),
+        QUERY(true),
+        DOCUMENTS_LIST(true),
+        DOCUMENTS_DELETE(false);
+
+        private final boolean idempotent;
+
+        Route(boolean idempotent) {
+            this.idempotent = idempotent;
+        }
+    }
+
+    private final CircuitBreaker circuitBreaker;
+    private final Map<Route, Duration> responseTimeouts = new EnumMap<>(Route.class);
+    private final int maxRetries;
+    private final Duration retryBackoff;
+
+    public RagTransport(CircuitBreaker ragServiceCircuitBreaker,
+                        @Value("${rag.client.timeout.models:PT5S}") Duration modelsTimeout,
+                        @Value("${rag.client.timeout.generate:PT180S}") Duration generateTimeout,
+                        @Value("${rag.client.timeout.ingest:PT120S}") Duration ingestTimeout,
+                        @Value("${rag.client.timeout.query:PT120S}") Duration queryTimeout,
+                        @Value("${rag.client.timeout.documents:PT30S}") Duration documentsTimeout,
+                        @Value("${rag.client.retry.max-retries:2}") int maxRetries,
+                        @Value("${rag.client.retry.backoff:PT0.2S}") Duration retryBackoff) {
+        this.circuitBreaker = ragServiceCircuitBreaker;
+        this.responseTimeouts.put(Route.MODELS, modelsTimeout);
+        this.responseTimeouts.put(Route.GENERATE, generateTimeout);
+        this.responseTimeouts.put(Route.INGEST, ingestTimeout);
+        this.responseTimeouts.put(Route.QUERY, queryTimeout);
+        this.responseTimeouts.put(Route.DOCUMENTS_LIST, documentsTimeout);
+        this.responseTimeouts.put(Route.DOCUMENTS_DELETE, documentsTimeout);
+        this.maxRetries = maxRetries;
+        this.retryBackoff = retryBackoff;
+    }
+
+    /**
+     * Request customizer that sets the reactor-netty response (read) timeout for the route.
+     * For streamed responses it bounds the gap between two chunks.
+     */
+    public Consumer<ClientHttpRequest> timeout(Route route) {
+        Duration timeout = responseTimeouts.get(route);
+        return request -> {
+            HttpClientRequest nativeRequest = request.getNativeRequest();
+            nativeRequest.responseTimeout(timeout);
+        };
+    }
+
+    /**
+     * Guards a call with the circuit breaker and, for idempotent routes, bounded retries.
+     */
+    public <T> Mono<T> guard(Route route, Mono<T> call) {
+        Mono<T> guarded = call.transformDeferred(CircuitBreakerOperator.of(circuitBreaker));
+        return route.idempotent ? guarded.retryWhen(retrySpec(route)) : guarded;
+    }
+
+    /**
+     * Guards a streamed call with the circuit breaker. Streams are never retried
+     * because chunks may already have been relayed.
+     */
+    public <T> Flux<T> guard(Route route, Flux<T> call) {
+        return call.transformDeferred(CircuitBreakerOperator.of(circuitBreaker));
+    }
+
+    private Retry retrySpec(Route route) {
+        return Retry.backoff(maxRetries, retryBackoff)
+                .jitter(0.5)
+                .filter(RagTransport::isRetryable)
+                .doBeforeRetry(signal -> log.warn("Retrying RAG call {} (attempt {}): {}",
+                        route, signal.totalRetries() + 1, signal.failure().getMessage()))
+                .onRetryExhaustedThrow((spec, signal) -> signal.failure());
+    }
+
+    private static boolean isRetryable(Throwable error) {
+        if (error instanceof CallNotPermittedException) {
+            return false;
+        }
+        if (error instanceof WebClientResponseException responseError) {
+            return responseError.getStatusCode().is5xxServerError();
+        }
+        return error instanceof WebClientRequestException || error instanceof TimeoutException
+                || error.getCause() instanceof TimeoutException;
+    }
+}
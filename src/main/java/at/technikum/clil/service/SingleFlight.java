@@ -0,0 +1,48 @@
+package at.technikum.clil.service;
+
+import io.micrometer.core.instrument.Counter;
+import reactor.core.publisher.Flux;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+
+/**
+ * Coalesces concurrent calls with the same key onto one shared upstream.
+ * Late joiners get every element already emitted replayed; the upstream is
+ * cancelled only once the last subscriber has gone.
+ */
+class SingleFlight<T> {
+
+    private final Map<String, Flux<T>> inFlight = new ConcurrentHashMap<>();
+    private final Counter coalesced;
+
+    SingleFlight(Counter coalesced) {
+        this.coalesced = coalesced;
+    }
+
+    Flux<T> execute(String key, Supplier<Flux<T>> upstream) {
+        return Flux.defer(() -> {
+            AtomicBoolean created = new AtomicBoolean(false);
+            Flux<T> shared = inFlight.computeIfAbsent(key, k -> {
+                created.set(true);
+                return share(k, upstream.get());
+            });
+            if (!created.get()) {
+                coalesced.increment();
+            }
+            return shared;
+        });
+    }
+
+    private Flux<T> share(String key, Flux<T> source) {
+        AtomicReference<Flux<T>> self = new AtomicReference<>();
+        self.set(source
+                .doFinally(signal -> inFlight.remove(key, self.get()))
+                .replay()
+                .refCount(1));
+        return self.get();
+    }
+}
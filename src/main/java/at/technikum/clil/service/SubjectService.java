@@ -64,11 +64,12 @@ public class SubjectService {
 
     private void seedDefaults(User owner) {
         log.info("Seeding default subjects for user {}", owner.getUsername());
-        for (String name : DEFAULT_SUBJECTS) {
-            subjectRepository.save(Subject.builder()
-                    .name(name)
-                    .owner(owner)
-                    .build());
-        }
+        // One nextval and one batched INSERT instead of a round-trip per subject
+        subjectRepository.saveAll(DEFAULT_SUBJECTS.stream()
+                .map(name -> Subject.builder()
+                        .name(name)
+                        .owner(owner)
+                        .build())
+                .toList());
     }
 }
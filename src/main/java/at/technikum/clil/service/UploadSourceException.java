@@ -0,0 +1,31 @@
+package at.technikum.clil.service;
+
+/**
+ * Thrown when a streamed upload fails on the client's side: the request body could not be
+ * read to the end or exceeded the size limit. Not counted as a RAG service failure.
+ */
+public class UploadSourceException extends RuntimeException {
+
+    private final boolean tooLarge;
+
+    public UploadSourceException(String message, boolean tooLarge, Throwable cause) {
+        super(message, cause);
+        this.tooLarge = tooLarge;
+    }
+
+    public boolean isTooLarge() {
+        return tooLarge;
+    }
+
+    /**
+     * Finds the exception in the cause chain, as the WebClient may wrap errors of the request body.
+     */
+    public static UploadSourceException find(Throwable error) {
+        for (Throwable current = error; current != null; current = current.getCause()) {
+            if (current instanceof UploadSourceException uploadError) {
+                return uploadError;
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,136 @@
+package db.migration;
+
+import org.flywaydb.core.api.migration.BaseJavaMigration;
+import org.flywaydb.core.api.migration.Context;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.HexFormat;
+import java.util.zip.Deflater;
+
+/**
+ * Moves the inline ai_response/formatted_html bodies into content_blobs, fills search_vector
+ * for the moved rows and drops the inline columns. The blobs are written in the storage format
+ * of ContentBlob at the time of this migration (SHA-256 hex of the UTF-8 bytes, zlib-deflated
+ * data), which is why this is not a plain SQL migration. The format is copied here rather than
+ * calling ContentBlob, so later changes to the entity cannot change what this migration writes.
+ */
+public class V4__Move_inline_bodies_to_content_blobs extends BaseJavaMigration {
+
+    private static final int BATCH_SIZE = 200;
+
+    // Same weighting as LessonMaterialRepository.updateSearchVector, computed from the inline columns
+    private static final String FILL_SEARCH_VECTOR = """
+            UPDATE lesson_materials lm SET search_vector =
+                   setweight(to_tsvector('german', coalesce(lm.topic, '')), 'A')
+                || setweight(to_tsvector('english', coalesce(lm.topic, '')), 'A')
+                || setweight(to_tsvector('german', coalesce(t.tags, '')), 'B')
+                || setweight(to_tsvector('english', coalesce(t.tags, '')), 'B')
+                || setweight(to_tsvector('german', coalesce(lm.description, '')), 'C')
+                || setweight(to_tsvector('english', coalesce(lm.description, '')), 'C')
+                || setweight(to_tsvector('german', regexp_replace(coalesce(lm.ai_response, ''), '<[^>]+>', ' ', 'g')), 'D')
+                || setweight(to_tsvector('english', regexp_replace(coalesce(lm.ai_response, ''), '<[^>]+>', ' ', 'g')), 'D')
+            FROM (SELECT m.id, string_agg(mt.tag, ' ') AS tags
+                  FROM lesson_materials m LEFT JOIN material_tags mt ON mt.material_id = m.id
+                  GROUP BY m.id) t
+            WHERE t.id = lm.id AND lm.search_vector IS NULL AND lm.ai_response IS NOT NULL
+            """;
+
+    @Override
+    public void migrate(Context context) throws Exception {
+        Connection connection = context.getConnection();
+        if (!hasInlineBodies(connection)) {
+            return;
+        }
+        try (Statement statement = connection.createStatement()) {
+            statement.execute(FILL_SEARCH_VECTOR);
+        }
+
+        try (PreparedStatement select = connection.prepareStatement(
+                     "SELECT id, ai_response, formatted_html FROM lesson_materials "
+                             + "WHERE body_hash IS NULL AND ai_response IS NOT NULL ORDER BY id LIMIT " + BATCH_SIZE);
+             PreparedStatement insertBlob = connection.prepareStatement(
+                     "INSERT INTO content_blobs (hash, data, original_size, created_at) VALUES (?, ?, ?, ?) "
+                             + "ON CONFLICT (hash) DO NOTHING");
+             PreparedStatement updateMaterial = connection.prepareStatement(
+                     "UPDATE lesson_materials SET body_hash = ?, formatted_hash = ? WHERE id = ?")) {
+            int moved;
+            do {
+                moved = 0;
+                try (ResultSet rows = select.executeQuery()) {
+                    while (rows.next()) {
+                        String body = rows.getString("ai_response");
+                        String formatted = rows.getString("formatted_html");
+                        String bodyHash = store(insertBlob, body);
+                        // Only diverging formatted versions are referenced separately
+                        String formattedHash = formatted == null || formatted.equals(body)
+                                ? null
+                                : store(insertBlob, formatted);
+                        updateMaterial.setString(1, bodyHash);
+                        updateMaterial.setString(2, formattedHash);
+                        updateMaterial.setLong(3, rows.getLong("id"));
+                        updateMaterial.addBatch();
+                        moved++;
+                    }
+                }
+                insertBlob.executeBatch();
+                updateMaterial.executeBatch();
+            } while (moved == BATCH_SIZE);
+        }
+
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("ALTER TABLE lesson_materials DROP COLUMN ai_response, DROP COLUMN formatted_html");
+        }
+    }
+
+    private static String store(PreparedStatement insertBlob, String text) throws SQLException {
+        byte[] raw = text.getBytes(StandardCharsets.UTF_8);
+        String hash = sha256(raw);
+        insertBlob.setString(1, hash);
+        insertBlob.setBytes(2, deflate(raw));
+        insertBlob.setInt(3, raw.length);
+        insertBlob.setTimestamp(4, Timestamp.valueOf(LocalDateTime.now()));
+        insertBlob.addBatch();
+        return hash;
+    }
+
+    private static String sha256(byte[] raw) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(raw));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    private static byte[] deflate(byte[] raw) {
+        Deflater deflater = new Deflater(Deflater.DEFAULT_COMPRESSION);
+        try {
+            deflater.setInput(raw);
+            deflater.finish();
+            ByteArrayOutputStream out = new ByteArrayOutputStream(Math.max(64, raw.length / 4));
+            byte[] buffer = new byte[8192];
+            while (!deflater.finished()) {
+                out.write(buffer, 0, deflater.deflate(buffer));
+            }
+            return out.toByteArray();
+        } finally {
+            deflater.end();
+        }
+    }
+
+    private static boolean hasInlineBodies(Connection connection) throws SQLException {
+        try (ResultSet columns = connection.getMetaData()
+                .getColumns(null, null, "lesson_materials", "ai_response")) {
+            return columns.next();
+        }
+    }
+}
@@ -0,0 +1,48 @@
+-- Schema as created by Hibernate (ddl-auto=update) before migrations were introduced.
+-- Existing databases are baselined at this version (spring.flyway.baseline-on-migrate),
+-- so every statement here only runs on empty databases.
+
+CREATE TABLE IF NOT EXISTS users (
+    id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    username VARCHAR(50) NOT NULL UNIQUE,
+    email VARCHAR(255) NOT NULL UNIQUE,
+    password VARCHAR(255) NOT NULL,
+    approved BOOLEAN NOT NULL,
+    created_at TIMESTAMP(6),
+    modified_at TIMESTAMP(6)
+);
+
+CREATE TABLE IF NOT EXISTS user_roles (
+    user_id BIGINT NOT NULL REFERENCES users(id),
+    role VARCHAR(255) CHECK (role IN ('USER', 'ADMIN'))
+);
+
+CREATE TABLE IF NOT EXISTS subjects (
+    id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    name VARCHAR(100) NOT NULL,
+    owner_id BIGINT NOT NULL REFERENCES users(id),
+    created_at TIMESTAMP(6),
+    UNIQUE (name, owner_id)
+);
+
+CREATE TABLE IF NOT EXISTS lesson_materials (
+    id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    owner_id BIGINT REFERENCES users(id),
+    material_type VARCHAR(255) NOT NULL,
+    topic VARCHAR(255) NOT NULL,
+    ai_response TEXT NOT NULL,
+    formatted_html TEXT,
+    subject VARCHAR(255),
+    language_level VARCHAR(255),
+    vocab_percentage INTEGER,
+    content_focus VARCHAR(255),
+    include_vocab_list BOOLEAN,
+    description TEXT,
+    created_at TIMESTAMP(6),
+    modified_at TIMESTAMP(6)
+);
+
+CREATE TABLE IF NOT EXISTS material_tags (
+    material_id BIGINT NOT NULL REFERENCES lesson_materials(id),
+    tag VARCHAR(255)
+);
@@ -0,0 +1,15 @@
+-- Asynchronous generation jobs (POST /api/v1/clil/generate/jobs)
+CREATE TABLE IF NOT EXISTS generation_jobs (
+    id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    owner_id BIGINT NOT NULL REFERENCES users(id),
+    status VARCHAR(20) NOT NULL CHECK (status IN ('QUEUED', 'RUNNING', 'SUCCEEDED', 'FAILED')),
+    request JSONB NOT NULL,
+    result JSONB,
+    skip_cache BOOLEAN NOT NULL DEFAULT false,
+    auto_save BOOLEAN NOT NULL DEFAULT false,
+    material_id BIGINT,
+    error_message TEXT,
+    created_at TIMESTAMP(6),
+    started_at TIMESTAMP(6),
+    finished_at TIMESTAMP(6)
+);
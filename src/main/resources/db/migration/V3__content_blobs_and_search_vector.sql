@@ -0,0 +1,18 @@
+-- Material bodies: deflate-compressed, stored once per SHA-256 of the text.
+-- The inline ai_response/formatted_html values are moved here by V4.
+CREATE TABLE IF NOT EXISTS content_blobs (
+    hash VARCHAR(64) PRIMARY KEY,
+    data BYTEA NOT NULL,
+    original_size INTEGER NOT NULL,
+    created_at TIMESTAMP(6)
+);
+
+ALTER TABLE lesson_materials ADD COLUMN IF NOT EXISTS body_hash VARCHAR(64) REFERENCES content_blobs(hash);
+ALTER TABLE lesson_materials ADD COLUMN IF NOT EXISTS formatted_hash VARCHAR(64) REFERENCES content_blobs(hash);
+
+-- Full-text search (GET /materials/search): German + English, weighted topic > tags > description > body.
+-- Written by the application on save (LessonMaterialRepository.updateSearchVector), since bodies are compressed.
+-- Databases that ran a development build may still have it as a generated column over search_tags.
+ALTER TABLE lesson_materials ADD COLUMN IF NOT EXISTS search_vector tsvector;
+ALTER TABLE lesson_materials ALTER COLUMN search_vector DROP EXPRESSION IF EXISTS;
+ALTER TABLE lesson_materials DROP COLUMN IF EXISTS search_tags;
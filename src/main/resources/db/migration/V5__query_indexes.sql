@@ -0,0 +1,31 @@
+-- One index per repository access path. RepositoryQueryPlanTest runs EXPLAIN on every
+-- repository query against seeded tables and fails on sequential scans.
+-- Unique constraints from V1 already serve users.username, users.email and
+-- subjects (name, owner_id) (SubjectRepository.existsByNameAndOwner).
+
+-- UserRepository: admin listing, newest first (findSummaries default sort createdAt DESC, id DESC)
+CREATE INDEX IF NOT EXISTS idx_users_created ON users(created_at, id);
+-- UserRepository: approval queue (findByApprovedFalseOrderByCreatedAtAsc, findPendingSummaries, countByApprovedFalse)
+CREATE INDEX IF NOT EXISTS idx_users_pending ON users(created_at) WHERE NOT approved;
+-- Roles are loaded with the user and batched for admin pages (findRolesByUserIds)
+CREATE UNIQUE INDEX IF NOT EXISTS idx_user_roles_user_role ON user_roles(user_id, role);
+
+-- SubjectRepository.findByOwnerOrderByCreatedAtAsc and the subject count of the admin listing
+CREATE INDEX IF NOT EXISTS idx_subjects_owner_created ON subjects(owner_id, created_at);
+
+-- LessonMaterialRepository keyset pagination:
+-- WHERE owner_id = ? AND (created_at, id) < (?, ?) ORDER BY created_at DESC, id DESC
+CREATE INDEX IF NOT EXISTS idx_lesson_materials_owner_created ON lesson_materials(owner_id, created_at DESC, id DESC);
+-- Full-text search (searchByOwner)
+CREATE INDEX IF NOT EXISTS idx_lesson_materials_search ON lesson_materials USING gin (search_vector);
+-- Reference checks of the content_blobs cleanup (ContentBlobRepository.deleteUnreferenced)
+CREATE INDEX IF NOT EXISTS idx_lesson_materials_body_hash ON lesson_materials(body_hash);
+CREATE INDEX IF NOT EXISTS idx_lesson_materials_formatted_hash ON lesson_materials(formatted_hash);
+
+-- Tags of a page of materials (findTagsByMaterialIds, @BatchSize on LessonMaterial.tags)
+CREATE INDEX IF NOT EXISTS idx_material_tags_material ON material_tags(material_id);
+-- Tag filter on GET /materials?tag=...: tag -> material_id lookup
+CREATE INDEX IF NOT EXISTS idx_material_tags_tag ON material_tags(tag, material_id);
+
+-- GenerationJobRepository.findUnfinished (startup recovery); finished jobs are never scanned
+CREATE INDEX IF NOT EXISTS idx_generation_jobs_unfinished ON generation_jobs(id) WHERE status IN ('QUEUED', 'RUNNING');
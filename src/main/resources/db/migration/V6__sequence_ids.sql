@@ -0,0 +1,23 @@
+-- Ids come from pooled sequences (allocationSize = 50 on the entities): Hibernate reserves
+-- a block of 50 ids per nextval, which is what allows JDBC insert batching.
+-- The sequences continue after the existing ids; the column default keeps plain SQL inserts working.
+
+CREATE SEQUENCE IF NOT EXISTS users_seq INCREMENT BY 50 OWNED BY users.id;
+SELECT setval('users_seq', (SELECT coalesce(max(id), 0) FROM users) + 50, false);
+ALTER TABLE users ALTER COLUMN id DROP IDENTITY IF EXISTS;
+ALTER TABLE users ALTER COLUMN id SET DEFAULT nextval('users_seq');
+
+CREATE SEQUENCE IF NOT EXISTS subjects_seq INCREMENT BY 50 OWNED BY subjects.id;
+SELECT setval('subjects_seq', (SELECT coalesce(max(id), 0) FROM subjects) + 50, false);
+ALTER TABLE subjects ALTER COLUMN id DROP IDENTITY IF EXISTS;
+ALTER TABLE subjects ALTER COLUMN id SET DEFAULT nextval('subjects_seq');
+
+CREATE SEQUENCE IF NOT EXISTS lesson_materials_seq INCREMENT BY 50 OWNED BY lesson_materials.id;
+SELECT setval('lesson_materials_seq', (SELECT coalesce(max(id), 0) FROM lesson_materials) + 50, false);
+ALTER TABLE lesson_materials ALTER COLUMN id DROP IDENTITY IF EXISTS;
+ALTER TABLE lesson_materials ALTER COLUMN id SET DEFAULT nextval('lesson_materials_seq');
+
+CREATE SEQUENCE IF NOT EXISTS generation_jobs_seq INCREMENT BY 50 OWNED BY generation_jobs.id;
+SELECT setval('generation_jobs_seq', (SELECT coalesce(max(id), 0) FROM generation_jobs) + 50, false);
+ALTER TABLE generation_jobs ALTER COLUMN id DROP IDENTITY IF EXISTS;
+ALTER TABLE generation_jobs ALTER COLUMN id SET DEFAULT nextval('generation_jobs_seq');
@@ -0,0 +1,18 @@
+-- Tag rows are deleted together with their material (bulk delete in LessonMaterialRepository.deleteOwned).
+-- The existing foreign key is named by V1 or, on baselined databases, by Hibernate, so it is looked up.
+DO $$
+DECLARE
+    fk_name TEXT;
+BEGIN
+    FOR fk_name IN
+        SELECT conname FROM pg_constraint
+        WHERE conrelid = 'material_tags'::regclass
+          AND confrelid = 'lesson_materials'::regclass
+          AND contype = 'f'
+    LOOP
+        EXECUTE format('ALTER TABLE material_tags DROP CONSTRAINT %I', fk_name);
+    END LOOP;
+END $$;
+
+ALTER TABLE material_tags ADD CONSTRAINT fk_material_tags_material
+    FOREIGN KEY (material_id) REFERENCES lesson_materials(id) ON DELETE CASCADE;
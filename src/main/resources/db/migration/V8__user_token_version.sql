@@ -0,0 +1,3 @@
+-- Access tokens carry the user's token version (claim "ver"); bumping it revokes all
+-- access tokens issued before (role change, approval, deletion). See TokenVersions.
+ALTER TABLE users ADD COLUMN IF NOT EXISTS token_version INTEGER NOT NULL DEFAULT 0;
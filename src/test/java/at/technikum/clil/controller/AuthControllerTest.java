@@ -0,0 +1,128 @@
+package at.technikum.clil.controller;
+
+import at.technikum.clil.model.User;
+import at.technikum.clil.repository.UserRepository;
+import at.technikum.clil.security.AuthRateLimiter;
+import at.technikum.clil.security.BoundedPasswordEncoder;
+import at.technikum.clil.security.JwtService;
+import at.technikum.clil.service.AuthService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
+import org.springframework.security.authentication.ProviderManager;
+import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.RequestBuilder;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Login through the real authentication provider and the bounded password encoder,
+ * checking that a full hashing queue and the rate limit answer 429 instead of 401.
+ */
+class AuthControllerTest {
+
+    private static final String LOGIN = "/api/v1/auth/login";
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final PasswordEncoder delegate = mock(PasswordEncoder.class);
+    private final BoundedPasswordEncoder passwordEncoder =
+            new BoundedPasswordEncoder(delegate, 1, 1, Duration.ofSeconds(3), meterRegistry);
+    private final UserDetailsService userDetailsService = mock(UserDetailsService.class);
+
+    @AfterEach
+    void close() {
+        passwordEncoder.close();
+    }
+
+    @Test
+    void loginReturns429WhenHashingQueueIsFull() throws Exception {
+        when(userDetailsService.loadUserByUsername("alice")).thenReturn(
+                User.builder().id(1L).username("alice").password("hash").approved(true).build());
+        when(userDetailsService.loadUserByUsername("nobody")).thenThrow(new UsernameNotFoundException("nobody"));
+        when(delegate.encode(any())).thenReturn("dummy");
+        MockMvc mockMvc = mockMvc(100);
+        // Lets the provider hash its dummy password for unknown users before the queue fills up
+        mockMvc.perform(login("nobody")).andExpect(status().isUnauthorized());
+
+        CountDownLatch running = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(delegate.matches(any(), anyString())).thenAnswer(invocation -> {
+            running.countDown();
+            return release.await(10, TimeUnit.SECONDS);
+        });
+        CompletableFuture<Boolean> first = CompletableFuture.supplyAsync(() -> passwordEncoder.matches("a", "b"));
+        assertThat(running.await(5, TimeUnit.SECONDS)).isTrue();
+        CompletableFuture<Boolean> second = CompletableFuture.supplyAsync(() -> passwordEncoder.matches("a", "b"));
+        awaitQueueDepth(1);
+
+        try {
+            for (String username : new String[]{"alice", "nobody"}) {
+                mockMvc.perform(login(username))
+                        .andExpect(status().isTooManyRequests())
+                        .andExpect(header().string("Retry-After", "3"))
+                        .andExpect(jsonPath("$.status").value(429));
+            }
+        } finally {
+            release.countDown();
+        }
+        first.get(5, TimeUnit.SECONDS);
+        second.get(5, TimeUnit.SECONDS);
+    }
+
+    @Test
+    void loginReturns429WhenRateLimited() throws Exception {
+        when(userDetailsService.loadUserByUsername("alice")).thenReturn(
+                User.builder().id(1L).username("alice").password("hash").approved(true).build());
+        when(delegate.matches(any(), anyString())).thenReturn(false);
+        MockMvc mockMvc = mockMvc(1);
+
+        mockMvc.perform(login("alice")).andExpect(status().isUnauthorized());
+        mockMvc.perform(login("alice"))
+                .andExpect(status().isTooManyRequests())
+                .andExpect(header().exists("Retry-After"));
+    }
+
+    private MockMvc mockMvc(int loginsPerUsername) {
+        DaoAuthenticationProvider provider = new DaoAuthenticationProvider();
+        provider.setUserDetailsService(userDetailsService);
+        provider.setPasswordEncoder(passwordEncoder);
+        AuthService authService = new AuthService(mock(UserRepository.class), passwordEncoder,
+                mock(JwtService.class), new ProviderManager(provider), userDetailsService);
+        AuthRateLimiter rateLimiter = new AuthRateLimiter(
+                100, Duration.ofSeconds(1), loginsPerUsername, Duration.ofMinutes(1), 1000, meterRegistry);
+        return MockMvcBuilders.standaloneSetup(new AuthController(authService, rateLimiter)).build();
+    }
+
+    private static RequestBuilder login(String username) {
+        return post(LOGIN)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"username\":\"" + username + "\",\"password\":\"secret\"}");
+    }
+
+    private void awaitQueueDepth(int depth) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (meterRegistry.get("auth.password.queue.depth").gauge().value() != depth) {
+            assertThat(System.nanoTime()).as("queue depth %d reached", depth).isLessThan(deadline);
+            Thread.sleep(10);
+        }
+    }
+}
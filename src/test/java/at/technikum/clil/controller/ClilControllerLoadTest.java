@@ -0,0 +1,168 @@
+package at.technikum.clil.controller;
+
+import at.technikum.clil.dto.ClilResponse;
+import at.technikum.clil.dto.MaterialPage;
+import at.technikum.clil.model.Role;
+import at.technikum.clil.model.User;
+import at.technikum.clil.repository.ContentBlobRepository;
+import at.technikum.clil.repository.GenerationJobRepository;
+import at.technikum.clil.repository.LessonMaterialRepository;
+import at.technikum.clil.repository.SubjectRepository;
+import at.technikum.clil.repository.UserRepository;
+import at.technikum.clil.security.JwtService;
+import at.technikum.clil.service.MaterialExportService;
+import at.technikum.clil.service.MaterialService;
+import at.technikum.clil.service.RagProxyService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.http.codec.ServerSentEvent;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.Mockito.when;
+
+/**
+ * Parks hundreds of generations on a RAG service that never answers and checks
+ * that material CRUD on the same (deliberately small) Tomcat pool stays fast.
+ * Runs without Postgres: JPA is switched off and repositories are mocked.
+ */
+@SpringBootTest(
+        webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = {
+                "spring.autoconfigure.exclude="
+                        + "org.springframework.boot.autoconfigure.jdbc.DataSourceAutoConfiguration,"
+                        + "org.springframework.boot.autoconfigure.orm.jpa.HibernateJpaAutoConfiguration,"
+                        + "org.springframework.boot.autoconfigure.data.jpa.JpaRepositoriesAutoConfiguration",
+                "server.tomcat.threads.max=20",
+                // Admission control is not under test here; let every generation through
+                "rag.admission.generate.global-limit=1000",
+                "rag.admission.generate.per-user-limit=1000",
+                "rag.admission.generate.queue-size=1000"
+        })
+class ClilControllerLoadTest {
+
+    private static final int PENDING_GENERATIONS = 300;
+    private static final int CRUD_REQUESTS = 100;
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private JwtService jwtService;
+
+    @MockBean
+    private ContentBlobRepository contentBlobRepository;
+
+    @MockBean
+    private NamedParameterJdbcTemplate jdbcTemplate;
+
+    @MockBean
+    private UserRepository userRepository;
+
+    @MockBean
+    private LessonMaterialRepository lessonMaterialRepository;
+
+    @MockBean
+    private SubjectRepository subjectRepository;
+
+    @MockBean
+    private GenerationJobRepository generationJobRepository;
+
+    @MockBean
+    private RagProxyService ragProxyService;
+
+    @MockBean
+    private MaterialService materialService;
+
+    @MockBean
+    private MaterialExportService materialExportService;
+
+    @Test
+    void crudLatencyStaysFlatWhileGenerationsArePending() throws Exception {
+        User teacher = User.builder()
+                .id(1L)
+                .username("teacher")
+                .email("teacher@helikon.at")
+                .password("irrelevant")
+                .roles(Set.of(Role.USER))
+                .approved(true)
+                .build();
+        when(userRepository.findByUsername("teacher")).thenReturn(Optional.of(teacher));
+        when(userRepository.findTokenVersionById(1L)).thenReturn(Optional.of(0));
+        when(userRepository.count()).thenReturn(1L);
+        when(materialService.getMaterials(any(), any(), any(), any(), anyBoolean(), any())).thenReturn(new MaterialPage<>(List.of(), null, 0L));
+
+        // Upstream that only answers once the test is done measuring
+        Sinks.One<ClilResponse> upstream = Sinks.one();
+        when(ragProxyService.generateMaterial(any())).thenReturn(upstream.asMono());
+        when(ragProxyService.streamMaterial(any()))
+                .thenReturn(Flux.<ServerSentEvent<java.util.Map<String, Object>>>never());
+
+        String token = jwtService.generateAccessToken(teacher);
+        HttpClient client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(5))
+                .build();
+
+        List<CompletableFuture<HttpResponse<String>>> generations = new ArrayList<>();
+        for (int i = 0; i < PENDING_GENERATIONS; i++) {
+            generations.add(client.sendAsync(
+                    request("/api/v1/clil/generate", token)
+                            .header("Content-Type", "application/json")
+                            .POST(HttpRequest.BodyPublishers.ofString(
+                                    "{\"materialType\":\"quiz\",\"topic\":\"Ohm\",\"prompt\":\"p\"}"))
+                            .build(),
+                    HttpResponse.BodyHandlers.ofString()));
+        }
+        // Give the generations time to reach the controller and park
+        Thread.sleep(1500);
+
+        List<Long> latenciesMs = new ArrayList<>();
+        for (int i = 0; i < CRUD_REQUESTS; i++) {
+            long start = System.nanoTime();
+            HttpResponse<String> response = client.send(
+                    request("/api/v1/clil/materials", token).GET().build(),
+                    HttpResponse.BodyHandlers.ofString());
+            latenciesMs.add((System.nanoTime() - start) / 1_000_000);
+            assertThat(response.statusCode()).isEqualTo(200);
+        }
+
+        assertThat(generations).noneMatch(CompletableFuture::isDone);
+
+        Collections.sort(latenciesMs);
+        long p95 = latenciesMs.get((int) (latenciesMs.size() * 0.95) - 1);
+        assertThat(p95).as("p95 CRUD latency in ms").isLessThan(500);
+
+        // Release the parked generations; every one must still complete normally
+        upstream.tryEmitValue(ClilResponse.builder().formattedResponse("<p>done</p>").build());
+        CompletableFuture.allOf(generations.toArray(CompletableFuture[]::new))
+                .get(30, java.util.concurrent.TimeUnit.SECONDS);
+        assertThat(generations).allSatisfy(f -> assertThat(f.join().statusCode()).isEqualTo(200));
+    }
+
+    private HttpRequest.Builder request(String path, String token) {
+        return HttpRequest.newBuilder(URI.create("http://localhost:" + port + path))
+                .timeout(Duration.ofSeconds(10))
+                .header("Authorization", "Bearer " + token);
+    }
+}
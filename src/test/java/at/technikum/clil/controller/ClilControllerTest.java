@@ -0,0 +1,52 @@
+package at.technikum.clil.controller;
+
+import at.technikum.clil.dto.ClilResponse;
+import at.technikum.clil.dto.MaterialRequest;
+import at.technikum.clil.model.User;
+import at.technikum.clil.service.AdmissionService;
+import at.technikum.clil.service.MaterialExportTasks;
+import at.technikum.clil.service.MaterialService;
+import at.technikum.clil.service.ModelRegistry;
+import at.technikum.clil.service.RagProxyService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.mock.env.MockEnvironment;
+import reactor.core.publisher.Mono;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class ClilControllerTest {
+
+    private final RagProxyService ragProxyService = mock(RagProxyService.class);
+    private final AdmissionService admissionService = new AdmissionService(new MockEnvironment()
+            .withProperty("rag.admission.retry-after", "PT7S")
+            .withProperty("rag.admission.generate.global-limit", "1")
+            .withProperty("rag.admission.generate.per-user-limit", "1")
+            .withProperty("rag.admission.generate.queue-size", "1"), new SimpleMeterRegistry());
+    private final ClilController controller = new ClilController(ragProxyService, mock(MaterialService.class),
+            mock(ModelRegistry.class), admissionService, mock(MaterialExportTasks.class));
+
+    @Test
+    void generationBeyondTheQueueAnswers429WithRetryAfter() {
+        when(ragProxyService.generateMaterial(any())).thenReturn(Mono.never());
+
+        controller.generateLessonMaterial(new MaterialRequest(), user(1L)).subscribe();
+        controller.generateLessonMaterial(new MaterialRequest(), user(2L)).subscribe();
+        ResponseEntity<ClilResponse> rejected =
+                controller.generateLessonMaterial(new MaterialRequest(), user(3L)).block();
+
+        assertThat(rejected.getStatusCode()).isEqualTo(HttpStatus.TOO_MANY_REQUESTS);
+        assertThat(rejected.getHeaders().getFirst(HttpHeaders.RETRY_AFTER)).isEqualTo("7");
+        assertThat(rejected.getBody().isError()).isTrue();
+    }
+
+    private static User user(Long id) {
+        return User.builder().id(id).username("user" + id).build();
+    }
+}
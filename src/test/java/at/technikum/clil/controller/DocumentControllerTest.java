@@ -0,0 +1,229 @@
+package at.technikum.clil.controller;
+
+import at.technikum.clil.config.RagServiceConfig;
+import at.technikum.clil.model.User;
+import at.technikum.clil.service.AdmissionService;
+import at.technikum.clil.service.DocumentProxyService;
+import at.technikum.clil.service.ProxyMetrics;
+import at.technikum.clil.service.RagTransport;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletInputStream;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.mock.env.MockEnvironment;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
+import reactor.netty.DisposableServer;
+import reactor.netty.http.server.HttpServer;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Streams uploads through the real proxy service to a local stand-in for the RAG ingest endpoint.
+ */
+class DocumentControllerTest {
+
+    private static final int CHUNK = 64 * 1024;
+
+    private final AtomicLong receivedByRag = new AtomicLong();
+    private final CountDownLatch firstChunksAtRag = new CountDownLatch(1);
+    private final DisposableServer rag = HttpServer.create()
+            .port(0)
+            .route(routes -> routes.post("/rag/ingest", (request, response) -> request.receive()
+                    .doOnNext(buffer -> {
+                        if (receivedByRag.addAndGet(buffer.readableBytes()) >= 4 * CHUNK) {
+                            firstChunksAtRag.countDown();
+                        }
+                    })
+                    .then(response.header("Content-Type", "application/json")
+                            .sendString(Mono.just("{\"status\": \"ingested\"}"))
+                            .then())))
+            .bindNow();
+
+    private final CircuitBreaker circuitBreaker = circuitBreaker();
+    private final DocumentController controller = new DocumentController(
+            new DocumentProxyService(WebClient.create("http://localhost:" + rag.port()), transport(circuitBreaker),
+                    new ProxyMetrics(new SimpleMeterRegistry()), DataSize.ofMegabytes(20)),
+            new AdmissionService(new MockEnvironment(), new SimpleMeterRegistry()));
+
+    @AfterEach
+    void stopRag() {
+        rag.disposeNow();
+    }
+
+    @Test
+    void bodyReachesTheRagServiceWhileTheClientIsStillSending() throws Exception {
+        CountDownLatch clientFinishes = new CountDownLatch(1);
+        InputStream body = new InputStream() {
+            private long sent;
+
+            @Override
+            public int read() throws IOException {
+                if (sent == 4 * CHUNK && !await(clientFinishes)) {
+                    throw new IOException("test timed out");
+                }
+                return sent++ < 4 * CHUNK ? 'x' : -1;
+            }
+        };
+
+        CompletableFuture<ResponseEntity<Map<String, Object>>> response = upload(body, -1).toFuture();
+
+        assertThat(firstChunksAtRag.await(10, TimeUnit.SECONDS)).isTrue();
+        assertThat(response).isNotDone();
+        clientFinishes.countDown();
+        assertThat(response.get(10, TimeUnit.SECONDS).getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(response.get().getBody()).containsEntry("status", "ingested");
+    }
+
+    @Test
+    void declaredLengthOverTheLimitIsRejectedBeforeReading() {
+        ResponseEntity<Map<String, Object>> response =
+                upload(InputStream.nullInputStream(), DataSize.ofMegabytes(20).toBytes() + 1).block();
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.PAYLOAD_TOO_LARGE);
+        assertThat(receivedByRag).hasValue(0);
+    }
+
+    @Test
+    void chunkedBodyOverTheLimitAnswers413() {
+        ResponseEntity<Map<String, Object>> response = upload(zeros(DataSize.ofMegabytes(20).toBytes() + 1), -1)
+                .block(Duration.ofSeconds(30));
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.PAYLOAD_TOO_LARGE);
+        assertThat(circuitBreaker.getMetrics().getNumberOfBufferedCalls()).isZero();
+    }
+
+    @Test
+    void abortedClientReadIsNotACircuitBreakerFailure() {
+        for (int i = 0; i < 20; i++) {
+            InputStream aborted = new InputStream() {
+                private long sent;
+
+                @Override
+                public int read() throws IOException {
+                    if (sent == CHUNK) {
+                        throw new IOException("Connection reset by peer");
+                    }
+                    sent++;
+                    return 'x';
+                }
+            };
+
+            ResponseEntity<Map<String, Object>> response = upload(aborted, -1).block(Duration.ofSeconds(10));
+
+            assertThat(response.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
+            assertThat(response.getBody()).containsEntry("error", "Upload aborted");
+        }
+
+        assertThat(circuitBreaker.getState()).isEqualTo(CircuitBreaker.State.CLOSED);
+        assertThat(circuitBreaker.getMetrics().getNumberOfBufferedCalls()).isZero();
+    }
+
+    private Mono<ResponseEntity<Map<String, Object>>> upload(InputStream body, long contentLength) {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/api/v1/clil/documents/upload/stream") {
+            @Override
+            public ServletInputStream getInputStream() {
+                return new BodyStream(body);
+            }
+
+            @Override
+            public long getContentLengthLong() {
+                return contentLength;
+            }
+        };
+        return controller.uploadDocumentStream("lesson.pdf", "biology", request,
+                User.builder().id(1L).username("alice").build());
+    }
+
+    private static InputStream zeros(long length) {
+        return new InputStream() {
+            private long sent;
+
+            @Override
+            public int read() {
+                return sent++ < length ? 0 : -1;
+            }
+
+            @Override
+            public int read(byte[] b, int off, int len) {
+                if (sent >= length) {
+                    return -1;
+                }
+                int n = (int) Math.min(len, length - sent);
+                sent += n;
+                return n;
+            }
+        };
+    }
+
+    private static boolean await(CountDownLatch latch) {
+        try {
+            return latch.await(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    private static CircuitBreaker circuitBreaker() {
+        RagServiceConfig config = new RagServiceConfig();
+        ReflectionTestUtils.setField(config, "failureRateThreshold", 50f);
+        ReflectionTestUtils.setField(config, "waitInOpenState", Duration.ofSeconds(30));
+        return config.ragServiceCircuitBreaker();
+    }
+
+    private static RagTransport transport(CircuitBreaker circuitBreaker) {
+        Duration timeout = Duration.ofSeconds(30);
+        return new RagTransport(circuitBreaker, timeout, timeout, timeout, timeout, timeout, 0, Duration.ZERO);
+    }
+
+    private static final class BodyStream extends ServletInputStream {
+
+        private final InputStream body;
+
+        BodyStream(InputStream body) {
+            this.body = body;
+        }
+
+        @Override
+        public int read() throws IOException {
+            return body.read();
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            return body.read(b, off, len);
+        }
+
+        @Override
+        public boolean isFinished() {
+            return false;
+        }
+
+        @Override
+        public boolean isReady() {
+            return true;
+        }
+
+        @Override
+        public void setReadListener(ReadListener readListener) {
+            throw new UnsupportedOperationException();
+        }
+    }
+}
@@ -0,0 +1,210 @@
+package at.technikum.clil.repository;
+
+import at.technikum.clil.model.LessonMaterial;
+import at.technikum.clil.model.User;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.jdbc.Sql;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Runs every repository query against the Flyway schema with seeded tables, captures the SQL
+ * Hibernate issues and fails if its generic plan contains a sequential scan. Needs Docker.
+ */
+@Testcontainers(disabledWithoutDocker = true)
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.session_factory.statement_inspector="
+        + "at.technikum.clil.repository.RepositoryQueryPlanTest$CapturingInspector")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Sql(scripts = "/db/query-plan-seed.sql", executionPhase = Sql.ExecutionPhase.BEFORE_TEST_CLASS)
+class RepositoryQueryPlanTest {
+
+    @Container
+    @ServiceConnection
+    static PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:16-alpine");
+
+    private static final Pattern SEQ_SCAN = Pattern.compile("Seq Scan on (\\w+)");
+    private static final Pattern PARAMETER = Pattern.compile("\\?");
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private SubjectRepository subjectRepository;
+
+    @Autowired
+    private LessonMaterialRepository materialRepository;
+
+    @Autowired
+    private GenerationJobRepository jobRepository;
+
+    @Autowired
+    private ContentBlobRepository blobRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    static Stream<Arguments> repositoryQueries() {
+        LocalDateTime now = LocalDateTime.now();
+        PageRequest firstPage = PageRequest.ofSize(51);
+        List<String> tags = List.of("tag1", "tag2");
+        return Stream.of(
+                query("UserRepository.findByUsername", t -> t.userRepository.findByUsername("user42")),
+                query("UserRepository.findByEmail", t -> t.userRepository.findByEmail("user42@example.org")),
+                query("UserRepository.existsByUsername", t -> t.userRepository.existsByUsername("user42")),
+                query("UserRepository.existsByEmail", t -> t.userRepository.existsByEmail("user42@example.org")),
+                query("UserRepository.findByApprovedFalseOrderByCreatedAtAsc",
+                        t -> t.userRepository.findByApprovedFalseOrderByCreatedAtAsc()),
+                query("UserRepository.countByApprovedFalse", t -> t.userRepository.countByApprovedFalse()),
+                query("UserRepository.findTokenVersionById", t -> t.userRepository.findTokenVersionById(42L)),
+                // The total of a page counts every user
+                query("UserRepository.findSummaries", t -> t.userRepository.findSummaries(PageRequest.of(0, 25,
+                        Sort.by(Sort.Direction.DESC, "createdAt").and(Sort.by(Sort.Direction.DESC, "id")))),
+                        "users"),
+                query("UserRepository.findPendingSummaries", t -> t.userRepository.findPendingSummaries()),
+                query("UserRepository.findSummaryById", t -> t.userRepository.findSummaryById(42L)),
+                query("UserRepository.findRolesByUserIds", t -> t.userRepository.findRolesByUserIds(List.of(1L, 2L, 3L))),
+
+                query("SubjectRepository.findByOwnerOrderByCreatedAtAsc",
+                        t -> t.subjectRepository.findByOwnerOrderByCreatedAtAsc(t.owner())),
+                query("SubjectRepository.existsByNameAndOwner",
+                        t -> t.subjectRepository.existsByNameAndOwner("subject42", t.owner())),
+
+                query("LessonMaterialRepository.findSummaryPageByOwner",
+                        t -> t.materialRepository.findSummaryPageByOwner(t.owner(), null, null, null, null, firstPage)),
+                query("LessonMaterialRepository.findSummaryPageByOwner (filtered)",
+                        t -> t.materialRepository.findSummaryPageByOwner(t.owner(), "quiz", "subject1", "B1",
+                                now.minusDays(7), firstPage)),
+                query("LessonMaterialRepository.findSummaryPageByOwnerAfter",
+                        t -> t.materialRepository.findSummaryPageByOwnerAfter(t.owner(), null, null, null, null,
+                                now, Long.MAX_VALUE, firstPage)),
+                query("LessonMaterialRepository.findSummaryPageByOwnerAndTags",
+                        t -> t.materialRepository.findSummaryPageByOwnerAndTags(t.owner(), null, null, null, null,
+                                tags, 2, firstPage)),
+                query("LessonMaterialRepository.findSummaryPageByOwnerAndTagsAfter",
+                        t -> t.materialRepository.findSummaryPageByOwnerAndTagsAfter(t.owner(), "quiz", null, null,
+                                null, tags, 1, now, Long.MAX_VALUE, firstPage)),
+                query("LessonMaterialRepository.countByOwner",
+                        t -> t.materialRepository.countByOwner(t.owner(), null, "subject1", null, now.minusDays(7))),
+                query("LessonMaterialRepository.countByOwnerAndTags",
+                        t -> t.materialRepository.countByOwnerAndTags(t.owner(), null, null, null, null, tags, 2)),
+                query("LessonMaterialRepository.countByOwnerGroupedByType",
+                        t -> t.materialRepository.countByOwnerGroupedByType(t.owner())),
+                query("LessonMaterialRepository.streamByOwner", t -> {
+                    try (Stream<LessonMaterial> materials = t.materialRepository.streamByOwner(t.owner())) {
+                        materials.findFirst();
+                    }
+                }),
+                query("LessonMaterialRepository.findSummariesByIds",
+                        t -> t.materialRepository.findSummariesByIds(List.of(1L, 2L, 3L))),
+                query("LessonMaterialRepository.findTagsByMaterialIds",
+                        t -> t.materialRepository.findTagsByMaterialIds(List.of(1L, 2L, 3L))),
+                query("LessonMaterialRepository.searchByOwner",
+                        t -> t.materialRepository.searchByOwner(42L, "topic42", 20, 0)),
+                query("LessonMaterialRepository.updateSearchVector",
+                        t -> t.materialRepository.updateSearchVector(1L, "topic", "tag1", "description", "<p>body</p>")),
+                query("LessonMaterialRepository.deleteOwned",
+                        t -> t.materialRepository.deleteOwned(42L, List.of(1L, 2L, 3L))),
+                query("LessonMaterialRepository.updateSubjectOwned",
+                        t -> t.materialRepository.updateSubjectOwned(t.owner(), List.of(1L, 2L, 3L), "subject1", now)),
+                query("LessonMaterialRepository.removeTagsOwned",
+                        t -> t.materialRepository.removeTagsOwned(42L, List.of(1L, 2L, 3L), tags)),
+                query("LessonMaterialRepository.addTagsOwned",
+                        t -> t.materialRepository.addTagsOwned(42L, List.of(1L, 2L, 3L), new String[]{"tag1", "tag2"})),
+                query("LessonMaterialRepository.refreshTagsOwned",
+                        t -> t.materialRepository.refreshTagsOwned(42L, List.of(1L, 2L, 3L), now)),
+
+                query("GenerationJobRepository.findByIdAndOwner",
+                        t -> t.jobRepository.findByIdAndOwner(1000L, t.owner())),
+                query("GenerationJobRepository.findUnfinished", t -> t.jobRepository.findUnfinished()),
+
+                query("ContentBlobRepository.insertOrTouch",
+                        t -> t.blobRepository.insertOrTouch("0".repeat(64), new byte[]{0}, 1, now)),
+                query("ContentBlobRepository.touch",
+                        t -> t.blobRepository.touch("0".repeat(64), now)),
+                // Daily cleanup job, visits every blob past the grace period by design
+                query("ContentBlobRepository.deleteUnreferenced",
+                        t -> t.blobRepository.deleteUnreferenced(now.minusDays(1)),
+                        "content_blobs", "lesson_materials")
+        );
+    }
+
+    @ParameterizedTest(name = "{0}")
+    @MethodSource("repositoryQueries")
+    void repositoryQueryUsesIndexes(String name, RepositoryCall call, Set<String> fullScansAllowed) {
+        CapturingInspector.STATEMENTS.clear();
+        call.run(this);
+        List<String> statements = List.copyOf(CapturingInspector.STATEMENTS);
+        assertThat(statements).as("SQL issued by %s", name).isNotEmpty();
+
+        for (String sql : statements) {
+            String plan = explain(sql);
+            Matcher scan = SEQ_SCAN.matcher(plan);
+            while (scan.find()) {
+                assertThat(fullScansAllowed)
+                        .as("%s scans %s sequentially:%n%s%n%s", name, scan.group(1), sql, plan)
+                        .contains(scan.group(1));
+            }
+        }
+    }
+
+    private User owner() {
+        return userRepository.getReferenceById(42L);
+    }
+
+    // The generic plan is the one a prepared statement gets for arbitrary parameter values
+    private String explain(String sql) {
+        int[] count = {0};
+        String numbered = PARAMETER.matcher(sql).replaceAll(match -> "\\$" + ++count[0]);
+        String nulls = String.join(", ", Collections.nCopies(count[0], "NULL"));
+        jdbcTemplate.execute("SET LOCAL plan_cache_mode = force_generic_plan");
+        jdbcTemplate.execute("PREPARE repository_query AS " + numbered);
+        try {
+            return String.join("\n", jdbcTemplate.queryForList(
+                    "EXPLAIN EXECUTE repository_query" + (count[0] == 0 ? "" : "(" + nulls + ")"), String.class));
+        } finally {
+            jdbcTemplate.execute("DEALLOCATE repository_query");
+        }
+    }
+
+    private static Arguments query(String name, RepositoryCall call, String... fullScansAllowed) {
+        return Arguments.of(name, call, Set.of(fullScansAllowed));
+    }
+
+    @FunctionalInterface
+    interface RepositoryCall {
+        void run(RepositoryQueryPlanTest test);
+    }
+
+    public static class CapturingInspector implements StatementInspector {
+
+        static final List<String> STATEMENTS = new CopyOnWriteArrayList<>();
+
+        @Override
+        public String inspect(String sql) {
+            STATEMENTS.add(sql);
+            return sql;
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package at.technikum.clil.security;
+
+import at.technikum.clil.security.AuthRateLimiter.Endpoint;
+import at.technikum.clil.service.AdmissionRejectedException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatCode;
+import static org.assertj.core.api.Assertions.catchThrowableOfType;
+
+class AuthRateLimiterTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    // 3 attempts per IP, 2 per username; refills far slower than the test runs
+    private final AuthRateLimiter rateLimiter = new AuthRateLimiter(
+            3, Duration.ofMinutes(1), 2, Duration.ofSeconds(90), 1000, meterRegistry);
+
+    @Test
+    void rejectsUsernameAfterCapacityWithRetryAfter() {
+        rateLimiter.acquire(Endpoint.LOGIN, "10.0.0.1", "alice");
+        rateLimiter.acquire(Endpoint.LOGIN, "10.0.0.2", "alice");
+
+        AdmissionRejectedException rejected = catchThrowableOfType(
+                () -> rateLimiter.acquire(Endpoint.LOGIN, "10.0.0.3", "alice"), AdmissionRejectedException.class);
+
+        assertThat(rejected).isNotNull();
+        assertThat(rejected.getRetryAfter()).isGreaterThanOrEqualTo(Duration.ofSeconds(1))
+                .isLessThanOrEqualTo(Duration.ofSeconds(90));
+        assertThat(meterRegistry.counter("auth.rate_limit.rejected", "endpoint", "login", "key", "username").count())
+                .isEqualTo(1);
+    }
+
+    @Test
+    void usernameIsNormalized() {
+        rateLimiter.acquire(Endpoint.LOGIN, "10.0.0.1", "Alice");
+        rateLimiter.acquire(Endpoint.LOGIN, "10.0.0.2", " alice ");
+
+        assertThat(catchThrowableOfType(() -> rateLimiter.acquire(Endpoint.LOGIN, "10.0.0.3", "ALICE"),
+                AdmissionRejectedException.class)).isNotNull();
+    }
+
+    @Test
+    void rejectsClientIpAfterCapacity() {
+        rateLimiter.acquire(Endpoint.LOGIN, "10.0.0.1", "alice");
+        rateLimiter.acquire(Endpoint.LOGIN, "10.0.0.1", "bob");
+        rateLimiter.acquire(Endpoint.LOGIN, "10.0.0.1", "carol");
+
+        assertThat(catchThrowableOfType(() -> rateLimiter.acquire(Endpoint.LOGIN, "10.0.0.1", "dave"),
+                AdmissionRejectedException.class)).isNotNull();
+        assertThatCode(() -> rateLimiter.acquire(Endpoint.LOGIN, "10.0.0.2", "dave")).doesNotThrowAnyException();
+        assertThat(meterRegistry.counter("auth.rate_limit.rejected", "endpoint", "login", "key", "ip").count())
+                .isEqualTo(1);
+    }
+
+    @Test
+    void endpointsHaveSeparateBuckets() {
+        rateLimiter.acquire(Endpoint.LOGIN, "10.0.0.1", "alice");
+        rateLimiter.acquire(Endpoint.LOGIN, "10.0.0.1", "alice");
+
+        assertThatCode(() -> rateLimiter.acquire(Endpoint.REGISTER, "10.0.0.1", "alice"))
+                .doesNotThrowAnyException();
+    }
+
+    @Test
+    void bucketRefills() throws InterruptedException {
+        AuthRateLimiter fastRefill = new AuthRateLimiter(
+                10, Duration.ofMillis(50), 1, Duration.ofMillis(50), 1000, meterRegistry);
+        fastRefill.acquire(Endpoint.LOGIN, "10.0.0.1", "alice");
+        assertThat(catchThrowableOfType(() -> fastRefill.acquire(Endpoint.LOGIN, "10.0.0.1", "alice"),
+                AdmissionRejectedException.class)).isNotNull();
+
+        Thread.sleep(100);
+
+        assertThatCode(() -> fastRefill.acquire(Endpoint.LOGIN, "10.0.0.1", "alice")).doesNotThrowAnyException();
+    }
+}
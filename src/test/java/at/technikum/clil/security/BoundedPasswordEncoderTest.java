@@ -0,0 +1,86 @@
+package at.technikum.clil.security;
+
+import at.technikum.clil.service.AdmissionRejectedException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.catchThrowableOfType;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class BoundedPasswordEncoderTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final PasswordEncoder delegate = mock(PasswordEncoder.class);
+    private final BoundedPasswordEncoder encoder =
+            new BoundedPasswordEncoder(delegate, 1, 1, Duration.ofSeconds(2), meterRegistry);
+
+    @AfterEach
+    void close() {
+        encoder.close();
+    }
+
+    @Test
+    void delegatesHashing() {
+        when(delegate.encode("secret")).thenReturn("hash");
+        when(delegate.matches("secret", "hash")).thenReturn(true);
+
+        assertThat(encoder.encode("secret")).isEqualTo("hash");
+        assertThat(encoder.matches("secret", "hash")).isTrue();
+        assertThat(encoder.matches("wrong", "hash")).isFalse();
+        assertThat(meterRegistry.timer("auth.password.hash", "operation", "matches").count()).isEqualTo(2);
+    }
+
+    @Test
+    void rethrowsDelegateErrors() {
+        when(delegate.encode("secret")).thenThrow(new IllegalArgumentException("too long"));
+
+        assertThatThrownBy(() -> encoder.encode("secret"))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("too long");
+    }
+
+    @Test
+    void rejectsWhenQueueIsFull() throws Exception {
+        CountDownLatch running = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(delegate.matches("secret", "hash")).thenAnswer(invocation -> {
+            running.countDown();
+            return release.await(10, TimeUnit.SECONDS);
+        });
+
+        // One check occupies the only thread, a second one waits in the queue
+        CompletableFuture<Boolean> first = CompletableFuture.supplyAsync(() -> encoder.matches("secret", "hash"));
+        assertThat(running.await(5, TimeUnit.SECONDS)).isTrue();
+        CompletableFuture<Boolean> second = CompletableFuture.supplyAsync(() -> encoder.matches("secret", "hash"));
+        awaitQueueDepth(1);
+
+        AdmissionRejectedException rejected = catchThrowableOfType(
+                () -> encoder.matches("secret", "hash"), AdmissionRejectedException.class);
+
+        assertThat(rejected).isNotNull();
+        assertThat(rejected.getRetryAfter()).isEqualTo(Duration.ofSeconds(2));
+        assertThat(meterRegistry.counter("auth.password.rejected").count()).isEqualTo(1);
+
+        release.countDown();
+        assertThat(first.get(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(second.get(5, TimeUnit.SECONDS)).isTrue();
+    }
+
+    private void awaitQueueDepth(int depth) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (meterRegistry.get("auth.password.queue.depth").gauge().value() != depth) {
+            assertThat(System.nanoTime()).as("queue depth %d reached", depth).isLessThan(deadline);
+            Thread.sleep(10);
+        }
+    }
+}
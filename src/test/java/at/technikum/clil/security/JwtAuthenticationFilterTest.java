@@ -0,0 +1,97 @@
+package at.technikum.clil.security;
+
+import at.technikum.clil.model.Role;
+import at.technikum.clil.model.User;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class JwtAuthenticationFilterTest {
+
+    private final JwtService jwtService = new JwtService(JwtServiceTest.SECRET, 60_000, 600_000, 100);
+    private final PrincipalCache principalCache = mock(PrincipalCache.class);
+    private final TokenVersions tokenVersions = mock(TokenVersions.class);
+
+    @AfterEach
+    void clearContext() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void accessTokenIsAuthenticatedFromClaims() throws Exception {
+        User user = JwtServiceTest.user(7L, Set.of(Role.ADMIN), 2);
+        when(tokenVersions.isCurrent(any())).thenReturn(true);
+
+        Authentication authentication = filter(true, jwtService.generateAccessToken(user));
+
+        assertThat(authentication).isNotNull();
+        assertThat(((User) authentication.getPrincipal()).getId()).isEqualTo(7L);
+        assertThat(authentication.getAuthorities()).extracting(Object::toString).containsExactly("ROLE_ADMIN");
+        verify(principalCache, never()).get(anyString());
+    }
+
+    @Test
+    void revokedAccessTokenIsNotAuthenticated() throws Exception {
+        User user = JwtServiceTest.user(7L, Set.of(Role.USER), 2);
+        when(tokenVersions.isCurrent(any())).thenReturn(false);
+
+        assertThat(filter(true, jwtService.generateAccessToken(user))).isNull();
+        verify(principalCache, never()).get(anyString());
+    }
+
+    @Test
+    void refreshTokenIsNotAuthenticated() throws Exception {
+        User user = JwtServiceTest.user(7L, Set.of(Role.USER), 0);
+        when(principalCache.get("alice")).thenReturn(user);
+        String refreshToken = jwtService.generateRefreshToken(user);
+
+        assertThat(filter(true, refreshToken)).isNull();
+        assertThat(filter(false, refreshToken)).isNull();
+        verify(principalCache, never()).get(anyString());
+        verify(tokenVersions, never()).isCurrent(any());
+    }
+
+    @Test
+    void statelessPrincipalSwitchedOffUsesPrincipalCache() throws Exception {
+        User user = JwtServiceTest.user(7L, Set.of(Role.USER), 0);
+        when(principalCache.get("alice")).thenReturn(user);
+
+        Authentication authentication = filter(false, jwtService.generateAccessToken(user));
+
+        assertThat(authentication.getPrincipal()).isSameAs(user);
+        verify(tokenVersions, never()).isCurrent(any());
+    }
+
+    @Test
+    void invalidTokenIsNotAuthenticated() throws Exception {
+        assertThat(filter(true, "not-a-jwt")).isNull();
+        verify(principalCache, never()).get(anyString());
+    }
+
+    private Authentication filter(boolean statelessPrincipal, String token) throws Exception {
+        JwtAuthenticationFilter filter =
+                new JwtAuthenticationFilter(jwtService, principalCache, tokenVersions, statelessPrincipal);
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/materials");
+        request.addHeader("Authorization", "Bearer " + token);
+        MockFilterChain chain = new MockFilterChain();
+
+        filter.doFilter(request, new MockHttpServletResponse(), chain);
+
+        assertThat(chain.getRequest()).isNotNull();
+        return SecurityContextHolder.getContext().getAuthentication();
+    }
+}
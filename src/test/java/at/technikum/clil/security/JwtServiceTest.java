@@ -0,0 +1,118 @@
+package at.technikum.clil.security;
+
+import at.technikum.clil.model.Role;
+import at.technikum.clil.model.User;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.io.Decoders;
+import io.jsonwebtoken.security.Keys;
+import org.junit.jupiter.api.Test;
+
+import java.util.Date;
+import java.util.Optional;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class JwtServiceTest {
+
+    static final String SECRET = "dW5pdC10ZXN0LXNpZ25pbmcta2V5LWZvci1qd3Qtc2VydmljZS0wMTIzNDU2Nzg5";
+
+    private final JwtService jwtService = new JwtService(SECRET, 60_000, 600_000, 100);
+
+    @Test
+    void principalOfAccessTokenCarriesIdRolesAndVersion() {
+        User user = user(7L, Set.of(Role.USER, Role.ADMIN), 3);
+
+        Optional<User> principal = jwtService.principalOf(claims(jwtService.generateAccessToken(user)));
+
+        assertThat(principal).hasValueSatisfying(p -> {
+            assertThat(p.getId()).isEqualTo(7L);
+            assertThat(p.getUsername()).isEqualTo("alice");
+            assertThat(p.getRoles()).containsExactlyInAnyOrder(Role.USER, Role.ADMIN);
+            assertThat(p.getTokenVersion()).isEqualTo(3);
+        });
+    }
+
+    @Test
+    void refreshTokenHasNoPrincipal() {
+        String token = jwtService.generateRefreshToken(user(7L, Set.of(Role.USER), 0));
+
+        assertThat(jwtService.principalOf(claims(token))).isEmpty();
+    }
+
+    @Test
+    void refreshTokenIsCurrentOnlyForItsUserAndVersion() {
+        User user = user(7L, Set.of(Role.USER), 2);
+        Claims refresh = claims(jwtService.generateRefreshToken(user));
+
+        assertThat(jwtService.isCurrentRefreshToken(refresh, user)).isTrue();
+        assertThat(jwtService.isCurrentRefreshToken(refresh, user(7L, Set.of(Role.USER), 3))).isFalse();
+        assertThat(jwtService.isCurrentRefreshToken(refresh, user(8L, Set.of(Role.USER), 2))).isFalse();
+        assertThat(jwtService.isCurrentRefreshToken(claims(jwtService.generateAccessToken(user)), user)).isFalse();
+    }
+
+    @Test
+    void refreshTokenWithoutIdOrVersionIsNotCurrent() {
+        // Refresh tokens issued before uid and ver were added
+        String token = Jwts.builder()
+                .subject("alice")
+                .claim("type", "refresh")
+                .expiration(new Date(System.currentTimeMillis() + 60_000))
+                .signWith(Keys.hmacShaKeyFor(Decoders.BASE64.decode(SECRET)))
+                .compact();
+
+        assertThat(jwtService.isCurrentRefreshToken(claims(token), user(7L, Set.of(Role.USER), 0))).isFalse();
+    }
+
+    @Test
+    void tokenWithoutIdOrVersionHasNoPrincipal() {
+        // Access tokens issued before uid and ver were added
+        String token = Jwts.builder()
+                .subject("alice")
+                .claim("roles", "ROLE_USER")
+                .claim("type", "access")
+                .expiration(new Date(System.currentTimeMillis() + 60_000))
+                .signWith(Keys.hmacShaKeyFor(Decoders.BASE64.decode(SECRET)))
+                .compact();
+
+        assertThat(jwtService.principalOf(claims(token))).isEmpty();
+    }
+
+    @Test
+    void tokenWithUnknownRoleHasNoPrincipal() {
+        String token = Jwts.builder()
+                .subject("alice")
+                .claim("uid", 7L)
+                .claim("roles", "ROLE_USER,ROLE_SUPERVISOR")
+                .claim("ver", 0)
+                .claim("type", "access")
+                .expiration(new Date(System.currentTimeMillis() + 60_000))
+                .signWith(Keys.hmacShaKeyFor(Decoders.BASE64.decode(SECRET)))
+                .compact();
+
+        assertThat(jwtService.principalOf(claims(token))).isEmpty();
+    }
+
+    @Test
+    void tamperedTokenIsRejected() {
+        String token = jwtService.generateAccessToken(user(7L, Set.of(Role.USER), 0));
+        String tampered = token.substring(0, token.length() - 2) + (token.endsWith("AA") ? "BB" : "AA");
+
+        assertThat(jwtService.validate(tampered)).isEmpty();
+    }
+
+    private Claims claims(String token) {
+        return jwtService.validate(token).orElseThrow();
+    }
+
+    static User user(Long id, Set<Role> roles, int tokenVersion) {
+        return User.builder()
+                .id(id)
+                .username("alice")
+                .roles(roles)
+                .approved(true)
+                .tokenVersion(tokenVersion)
+                .build();
+    }
+}
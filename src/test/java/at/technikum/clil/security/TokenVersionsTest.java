@@ -0,0 +1,138 @@
+package at.technikum.clil.security;
+
+import at.technikum.clil.model.User;
+import at.technikum.clil.repository.UserRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class TokenVersionsTest {
+
+    private final UserRepository userRepository = mock(UserRepository.class);
+    private final AtomicLong nanos = new AtomicLong();
+    private final TokenVersions tokenVersions =
+            new TokenVersions(userRepository, 100, Duration.ofMinutes(5), new SimpleMeterRegistry(), nanos::get);
+
+    @AfterEach
+    void clearSynchronization() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void loadsVersionOnceAndAcceptsCurrentToken() {
+        when(userRepository.findTokenVersionById(1L)).thenReturn(Optional.of(3));
+
+        assertThat(tokenVersions.isCurrent(principal(1L, 3))).isTrue();
+        assertThat(tokenVersions.isCurrent(principal(1L, 3))).isTrue();
+        assertThat(tokenVersions.isCurrent(principal(1L, 2))).isFalse();
+        verify(userRepository, times(1)).findTokenVersionById(1L);
+    }
+
+    @Test
+    void rejectsOldVersionAfterRevoke() {
+        when(userRepository.findTokenVersionById(1L)).thenReturn(Optional.of(0));
+        User user = principal(1L, 0);
+        assertThat(tokenVersions.isCurrent(principal(1L, 0))).isTrue();
+
+        tokenVersions.revoke(user);
+
+        assertThat(user.getTokenVersion()).isEqualTo(1);
+        assertThat(tokenVersions.isCurrent(principal(1L, 0))).isFalse();
+        assertThat(tokenVersions.isCurrent(principal(1L, 1))).isTrue();
+    }
+
+    @Test
+    void revokeTakesEffectOnlyAfterCommit() {
+        when(userRepository.findTokenVersionById(1L)).thenReturn(Optional.of(0));
+        assertThat(tokenVersions.isCurrent(principal(1L, 0))).isTrue();
+
+        TransactionSynchronizationManager.initSynchronization();
+        tokenVersions.revoke(principal(1L, 0));
+        assertThat(tokenVersions.isCurrent(principal(1L, 0))).isTrue();
+
+        commit();
+        assertThat(tokenVersions.isCurrent(principal(1L, 0))).isFalse();
+        assertThat(tokenVersions.isCurrent(principal(1L, 1))).isTrue();
+    }
+
+    @Test
+    void staleLoadDoesNotOverwriteVersionCommittedInTheMeantime() {
+        // The request reads version 0 from the database, then the revocation commits
+        // before the loaded value is cached
+        TransactionSynchronizationManager.initSynchronization();
+        tokenVersions.revoke(principal(1L, 0));
+        List<TransactionSynchronization> revocation = TransactionSynchronizationManager.getSynchronizations();
+        TransactionSynchronizationManager.clearSynchronization();
+
+        when(userRepository.findTokenVersionById(1L)).thenAnswer(invocation -> {
+            revocation.forEach(TransactionSynchronization::afterCommit);
+            return Optional.of(0);
+        });
+
+        assertThat(tokenVersions.isCurrent(principal(1L, 0))).isFalse();
+        assertThat(tokenVersions.isCurrent(principal(1L, 1))).isTrue();
+    }
+
+    @Test
+    void revokeDeletedRejectsEveryVersion() {
+        when(userRepository.findTokenVersionById(1L)).thenReturn(Optional.of(4));
+        assertThat(tokenVersions.isCurrent(principal(1L, 4))).isTrue();
+
+        tokenVersions.revokeDeleted(1L);
+
+        assertThat(tokenVersions.isCurrent(principal(1L, 4))).isFalse();
+        assertThat(tokenVersions.isCurrent(principal(1L, 5))).isFalse();
+    }
+
+    @Test
+    void expiredEntryIsReadAgainFromTheDatabase() {
+        // A revocation committed by another instance only reaches this one through the database
+        when(userRepository.findTokenVersionById(1L)).thenReturn(Optional.of(0));
+        assertThat(tokenVersions.isCurrent(principal(1L, 0))).isTrue();
+
+        when(userRepository.findTokenVersionById(1L)).thenReturn(Optional.of(1));
+        nanos.addAndGet(Duration.ofMinutes(4).toNanos());
+        assertThat(tokenVersions.isCurrent(principal(1L, 0))).isTrue();
+
+        nanos.addAndGet(Duration.ofMinutes(1).toNanos());
+        assertThat(tokenVersions.isCurrent(principal(1L, 0))).isFalse();
+        assertThat(tokenVersions.isCurrent(principal(1L, 1))).isTrue();
+        verify(userRepository, times(2)).findTokenVersionById(1L);
+    }
+
+    @Test
+    void unknownUserIsRevoked() {
+        when(userRepository.findTokenVersionById(9L)).thenReturn(Optional.empty());
+
+        assertThat(tokenVersions.isCurrent(principal(9L, 0))).isFalse();
+    }
+
+    private static void commit() {
+        List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+        TransactionSynchronizationManager.clearSynchronization();
+        synchronizations.forEach(TransactionSynchronization::afterCommit);
+    }
+
+    private static User principal(Long id, int tokenVersion) {
+        return User.builder()
+                .id(id)
+                .username("user" + id)
+                .tokenVersion(tokenVersion)
+                .build();
+    }
+}
@@ -0,0 +1,139 @@
+package at.technikum.clil.service;
+
+import at.technikum.clil.service.AdmissionService.Operation;
+import at.technikum.clil.service.AdmissionService.Permit;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.env.MockEnvironment;
+import reactor.core.Disposable;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AdmissionServiceTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final AdmissionService admissionService = new AdmissionService(new MockEnvironment()
+            .withProperty("rag.admission.retry-after", "PT7S")
+            .withProperty("rag.admission.generate.global-limit", "2")
+            .withProperty("rag.admission.generate.per-user-limit", "1")
+            .withProperty("rag.admission.generate.queue-size", "2")
+            .withProperty("rag.admission.generate.max-wait", "PT10S"), meterRegistry);
+
+    private final AtomicInteger started = new AtomicInteger();
+
+    @Test
+    void perUserLimitQueuesTheSecondCallUntilTheFirstFinishes() {
+        Disposable first = generate(1L);
+        generate(1L);
+        generate(2L);
+
+        assertThat(started).hasValue(2);
+        assertThat(queued()).isEqualTo(1);
+
+        first.dispose();
+
+        assertThat(started).hasValue(3);
+        assertThat(active()).isEqualTo(2);
+        assertThat(queued()).isZero();
+    }
+
+    @Test
+    void fullQueueIsRejectedWithRetryAfter() {
+        generate(1L);
+        generate(2L);
+        generate(3L);
+        generate(4L);
+        AtomicReference<Throwable> rejected = new AtomicReference<>();
+
+        admissionService.admit(Operation.GENERATE, 5L, this::pending).subscribe(value -> { }, rejected::set);
+
+        assertThat(rejected.get()).isInstanceOf(AdmissionRejectedException.class);
+        assertThat(((AdmissionRejectedException) rejected.get()).getRetryAfter()).isEqualTo(Duration.ofSeconds(7));
+        assertThat(meterRegistry.counter("rag.admission.rejected", "operation", "generate", "reason", "queue_full")
+                .count()).isEqualTo(1);
+        assertThat(started).hasValue(2);
+    }
+
+    @Test
+    void userMayNotQueueMoreThanTheirPerUserLimit() {
+        generate(1L);
+        generate(1L);
+        AtomicReference<Throwable> rejected = new AtomicReference<>();
+
+        admissionService.admit(Operation.GENERATE, 1L, this::pending).subscribe(value -> { }, rejected::set);
+
+        assertThat(rejected.get()).isInstanceOf(AdmissionRejectedException.class);
+        assertThat(queued()).isEqualTo(1);
+    }
+
+    @Test
+    void releasingAPermitTwiceFreesOnlyOneSlot() {
+        Permit first = admissionService.acquire(Operation.GENERATE, 1L).block();
+        admissionService.acquire(Operation.GENERATE, 2L).block();
+        AtomicReference<Permit> third = new AtomicReference<>();
+        AtomicReference<Permit> fourth = new AtomicReference<>();
+        admissionService.acquire(Operation.GENERATE, 3L).subscribe(third::set);
+        admissionService.acquire(Operation.GENERATE, 4L).subscribe(fourth::set);
+
+        first.release();
+        first.release();
+
+        assertThat(third.get()).isNotNull();
+        assertThat(fourth.get()).isNull();
+        assertThat(active()).isEqualTo(2);
+    }
+
+    @Test
+    void cancelRacingAGrantDoesNotLeakTheSlot() throws Exception {
+        for (int i = 0; i < 2000; i++) {
+            Disposable holder = generate(1L);
+            Disposable secondHolder = generate(2L);
+            Disposable waiter = generate(3L);
+            CyclicBarrier barrier = new CyclicBarrier(2);
+
+            CompletableFuture<Void> release = CompletableFuture.runAsync(() -> {
+                await(barrier);
+                holder.dispose();
+            });
+            await(barrier);
+            waiter.dispose();
+            release.get();
+            secondHolder.dispose();
+
+            assertThat(active()).as("active after round %d", i).isZero();
+            assertThat(queued()).as("queued after round %d", i).isZero();
+        }
+    }
+
+    private Disposable generate(Long userId) {
+        return admissionService.admit(Operation.GENERATE, userId, this::pending).subscribe();
+    }
+
+    private Mono<String> pending() {
+        started.incrementAndGet();
+        return Mono.never();
+    }
+
+    private double active() {
+        return meterRegistry.get("rag.admission.active").tag("operation", "generate").gauge().value();
+    }
+
+    private double queued() {
+        return meterRegistry.get("rag.admission.queue.depth").tag("operation", "generate").gauge().value();
+    }
+
+    private static void await(CyclicBarrier barrier) {
+        try {
+            barrier.await();
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,68 @@
+package at.technikum.clil.service;
+
+import at.technikum.clil.dto.auth.AuthResponse;
+import at.technikum.clil.dto.auth.RefreshRequest;
+import at.technikum.clil.model.Role;
+import at.technikum.clil.model.User;
+import at.technikum.clil.repository.UserRepository;
+import at.technikum.clil.security.JwtService;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.authentication.AuthenticationManager;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class AuthServiceTest {
+
+    private static final String SECRET = "dW5pdC10ZXN0LXNpZ25pbmcta2V5LWZvci1qd3Qtc2VydmljZS0wMTIzNDU2Nzg5";
+
+    private final JwtService jwtService = new JwtService(SECRET, 60_000, 600_000, 100);
+    private final UserDetailsService userDetailsService = mock(UserDetailsService.class);
+    private final AuthService authService = new AuthService(mock(UserRepository.class), mock(PasswordEncoder.class),
+            jwtService, mock(AuthenticationManager.class), userDetailsService);
+
+    @Test
+    void currentRefreshTokenIssuesNewTokens() {
+        User user = user(7L, 2);
+        when(userDetailsService.loadUserByUsername("alice")).thenReturn(user);
+
+        AuthResponse response = authService.refresh(new RefreshRequest(jwtService.generateRefreshToken(user)));
+
+        assertThat(jwtService.principalOf(jwtService.validate(response.getAccessToken()).orElseThrow()))
+                .hasValueSatisfying(principal -> assertThat(principal.getTokenVersion()).isEqualTo(2));
+    }
+
+    @Test
+    void refreshTokenOfRevokedVersionIsRejected() {
+        String refreshToken = jwtService.generateRefreshToken(user(7L, 2));
+        when(userDetailsService.loadUserByUsername("alice")).thenReturn(user(7L, 3));
+
+        assertThatThrownBy(() -> authService.refresh(new RefreshRequest(refreshToken)))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void accessTokenIsNotAcceptedAsRefreshToken() {
+        User user = user(7L, 0);
+        when(userDetailsService.loadUserByUsername("alice")).thenReturn(user);
+
+        assertThatThrownBy(() -> authService.refresh(new RefreshRequest(jwtService.generateAccessToken(user))))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private static User user(Long id, int tokenVersion) {
+        return User.builder()
+                .id(id)
+                .username("alice")
+                .roles(Set.of(Role.USER))
+                .approved(true)
+                .tokenVersion(tokenVersion)
+                .build();
+    }
+}
@@ -0,0 +1,80 @@
+package at.technikum.clil.service;
+
+import at.technikum.clil.dto.ClilResponse;
+import at.technikum.clil.dto.MaterialRequest;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class GenerationCacheTest {
+
+    private final GenerationCache cache = new GenerationCache(true, 10, Duration.ofHours(1), new SimpleMeterRegistry());
+
+    @Test
+    void keyIsTheGenerationKey() {
+        MaterialRequest request = GenerationKeyTest.request("Photosynthesis", "Explain it");
+
+        assertThat(cache.keyFor(request)).contains(GenerationKey.of(request));
+    }
+
+    @Test
+    void documentContextAndSkipCacheBypassTheCache() {
+        MaterialRequest withContext = GenerationKeyTest.request("Photosynthesis", "Explain it");
+        withContext.setUseDocumentContext(true);
+        MaterialRequest skipping = GenerationKeyTest.request("Photosynthesis", "Explain it");
+        skipping.setSkipCache(true);
+
+        assertThat(cache.keyFor(withContext)).isEmpty();
+        assertThat(cache.keyFor(skipping)).isEmpty();
+    }
+
+    @Test
+    void disabledCacheHasNoKeys() {
+        GenerationCache disabled = new GenerationCache(false, 10, Duration.ofHours(1), new SimpleMeterRegistry());
+
+        assertThat(disabled.keyFor(GenerationKeyTest.request("Photosynthesis", "Explain it"))).isEmpty();
+    }
+
+    @Test
+    void storesSuccessfulGenerations() {
+        cache.put("key", response("<h1>Photosynthesis</h1>"));
+
+        assertThat(cache.get("key")).hasValueSatisfying(cached ->
+                assertThat(cached.getFormattedResponse()).isEqualTo("<h1>Photosynthesis</h1>"));
+        assertThat(cache.get("other")).isEmpty();
+    }
+
+    @Test
+    void errorResponsesAreNotCached() {
+        cache.put("error", response("<div class='error'>RAG service unavailable</div>"));
+        cache.put("empty", response(null));
+
+        assertThat(cache.get("error")).isEmpty();
+        assertThat(cache.get("empty")).isEmpty();
+    }
+
+    @Test
+    void callersGetCopies() {
+        ClilResponse stored = response("<h1>Photosynthesis</h1>");
+        cache.put("key", stored);
+        stored.getSources().clear();
+
+        ClilResponse first = cache.get("key").orElseThrow();
+        first.getSources().add(Map.of("title", "added"));
+
+        assertThat(cache.get("key").orElseThrow().getSources()).hasSize(1);
+    }
+
+    private static ClilResponse response(String html) {
+        return ClilResponse.builder()
+                .formattedResponse(html)
+                .sources(new ArrayList<>(List.of(Map.of("title", "Biology 1"))))
+                .build();
+    }
+}
@@ -0,0 +1,60 @@
+package at.technikum.clil.service;
+
+import at.technikum.clil.dto.MaterialRequest;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class GenerationKeyTest {
+
+    @Test
+    void sameRequestGivesSameKey() {
+        assertThat(GenerationKey.of(request("Photosynthesis", "Explain it")))
+                .isEqualTo(GenerationKey.of(request("Photosynthesis", "Explain it")))
+                .hasSize(64);
+    }
+
+    @Test
+    void surroundingWhitespaceIsIgnored() {
+        assertThat(GenerationKey.of(request("  Photosynthesis ", "Explain it\n")))
+                .isEqualTo(GenerationKey.of(request("Photosynthesis", "Explain it")));
+    }
+
+    @Test
+    void differentFieldGivesDifferentKey() {
+        MaterialRequest other = request("Photosynthesis", "Explain it");
+        other.setLanguageLevel("B2");
+
+        assertThat(GenerationKey.of(other)).isNotEqualTo(GenerationKey.of(request("Photosynthesis", "Explain it")));
+    }
+
+    @Test
+    void valuesDoNotBleedIntoNeighbouringFields() {
+        assertThat(GenerationKey.of(request("ab", "c"))).isNotEqualTo(GenerationKey.of(request("a", "bc")));
+        assertThat(GenerationKey.of(request("", "x"))).isNotEqualTo(GenerationKey.of(request("x", "")));
+    }
+
+    @Test
+    void nullAndEmptyAreTheSame() {
+        assertThat(GenerationKey.of(request(null, "Explain it")))
+                .isEqualTo(GenerationKey.of(request("", "Explain it")));
+    }
+
+    @Test
+    void skipCacheIsNotPartOfTheKey() {
+        MaterialRequest skipping = request("Photosynthesis", "Explain it");
+        skipping.setSkipCache(true);
+
+        assertThat(GenerationKey.of(skipping)).isEqualTo(GenerationKey.of(request("Photosynthesis", "Explain it")));
+    }
+
+    static MaterialRequest request(String topic, String prompt) {
+        MaterialRequest request = new MaterialRequest();
+        request.setMaterialType("worksheet");
+        request.setTopic(topic);
+        request.setPrompt(prompt);
+        request.setSubject("Biology");
+        request.setModelName("llama");
+        return request;
+    }
+}
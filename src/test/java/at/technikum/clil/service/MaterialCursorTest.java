@@ -0,0 +1,52 @@
+package at.technikum.clil.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class MaterialCursorTest {
+
+    @Test
+    void roundTripsThroughTheToken() {
+        MaterialCursor cursor = new MaterialCursor(LocalDateTime.of(2026, 3, 1, 12, 30, 15, 123_456_000), 42L);
+
+        assertThat(MaterialCursor.decode(cursor.encode())).isEqualTo(cursor);
+    }
+
+    @Test
+    void roundTripsWholeSeconds() {
+        // LocalDateTime.toString drops zero seconds ("12:30"), which must still parse
+        MaterialCursor cursor = new MaterialCursor(LocalDateTime.of(2026, 3, 1, 12, 30), 7L);
+
+        assertThat(MaterialCursor.decode(cursor.encode())).isEqualTo(cursor);
+    }
+
+    @Test
+    void tokenIsUrlSafeWithoutPadding() {
+        String token = new MaterialCursor(LocalDateTime.of(2026, 3, 1, 12, 30, 15, 999_999_000), Long.MAX_VALUE)
+                .encode();
+
+        assertThat(token).matches("[A-Za-z0-9_-]+");
+    }
+
+    @Test
+    void malformedTokensAreRejected() {
+        assertThatThrownBy(() -> MaterialCursor.decode("not base64!"))
+                .isInstanceOf(IllegalArgumentException.class).hasMessage("Invalid cursor");
+        assertThatThrownBy(() -> MaterialCursor.decode(encode("2026-03-01T12:30")))
+                .isInstanceOf(IllegalArgumentException.class).hasMessage("Invalid cursor");
+        assertThatThrownBy(() -> MaterialCursor.decode(encode("yesterday|42")))
+                .isInstanceOf(IllegalArgumentException.class).hasMessage("Invalid cursor");
+        assertThatThrownBy(() -> MaterialCursor.decode(encode("2026-03-01T12:30|abc")))
+                .isInstanceOf(IllegalArgumentException.class).hasMessage("Invalid cursor");
+    }
+
+    private static String encode(String raw) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+}
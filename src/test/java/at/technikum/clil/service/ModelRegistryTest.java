@@ -0,0 +1,149 @@
+package at.technikum.clil.service;
+
+import at.technikum.clil.dto.ModelCatalog;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class ModelRegistryTest {
+
+    private static final ModelCatalog CATALOG = new ModelCatalog("deepinfra", List.of("llama", "mistral"), Instant.EPOCH);
+
+    private final RagProxyService ragProxyService = mock(RagProxyService.class);
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final MutableClock clock = new MutableClock();
+    private final ModelRegistry registry = new ModelRegistry(ragProxyService, new ProxyMetrics(meterRegistry),
+            meterRegistry, Duration.ofHours(1), Duration.ofSeconds(5), Duration.ofSeconds(15), clock);
+
+    @Test
+    void servesFallbackDuringColdStartOutageWithoutRetryingEveryRequest() {
+        when(ragProxyService.fetchModelCatalog()).thenReturn(Mono.error(new IllegalStateException("down")));
+
+        assertThat(registry.current().block()).isEqualTo(ModelRegistry.FALLBACK);
+        assertThat(registry.current().block()).isEqualTo(ModelRegistry.FALLBACK);
+        registry.scheduledRefresh();
+
+        verify(ragProxyService, times(1)).fetchModelCatalog();
+    }
+
+    @Test
+    void coldStartCallsShareOneRefresh() {
+        Sinks.One<ModelCatalog> response = Sinks.one();
+        when(ragProxyService.fetchModelCatalog()).thenReturn(response.asMono());
+        AtomicReference<ModelCatalog> first = new AtomicReference<>();
+        AtomicReference<ModelCatalog> second = new AtomicReference<>();
+
+        registry.current().subscribe(first::set);
+        registry.current().subscribe(second::set);
+        response.tryEmitValue(CATALOG);
+
+        assertThat(first.get()).isEqualTo(CATALOG);
+        assertThat(second.get()).isEqualTo(CATALOG);
+        verify(ragProxyService, times(1)).fetchModelCatalog();
+        assertThat(meterRegistry.counter("rag.models.refresh.coalesced").count()).isEqualTo(1);
+    }
+
+    @Test
+    void retriesWithDoublingDelayAfterFailures() {
+        when(ragProxyService.fetchModelCatalog()).thenReturn(Mono.error(new IllegalStateException("down")));
+
+        registry.scheduledRefresh();
+        clock.advance(Duration.ofSeconds(4));
+        registry.scheduledRefresh();
+        verify(ragProxyService, times(1)).fetchModelCatalog();
+
+        clock.advance(Duration.ofSeconds(1));
+        registry.scheduledRefresh();
+        verify(ragProxyService, times(2)).fetchModelCatalog();
+
+        // Second failure: 10 s, then capped at 15 s
+        clock.advance(Duration.ofSeconds(9));
+        registry.scheduledRefresh();
+        verify(ragProxyService, times(2)).fetchModelCatalog();
+        clock.advance(Duration.ofSeconds(1));
+        registry.scheduledRefresh();
+        verify(ragProxyService, times(3)).fetchModelCatalog();
+        clock.advance(Duration.ofSeconds(15));
+        registry.scheduledRefresh();
+        verify(ragProxyService, times(4)).fetchModelCatalog();
+
+        when(ragProxyService.fetchModelCatalog()).thenReturn(Mono.just(CATALOG));
+        clock.advance(Duration.ofSeconds(15));
+        assertThat(registry.current().block()).isEqualTo(CATALOG);
+    }
+
+    @Test
+    void successfulCatalogIsKeptUntilTheRefreshInterval() {
+        when(ragProxyService.fetchModelCatalog()).thenReturn(Mono.just(CATALOG));
+        registry.scheduledRefresh();
+
+        clock.advance(Duration.ofMinutes(59));
+        registry.scheduledRefresh();
+        assertThat(registry.current().block()).isEqualTo(CATALOG);
+        verify(ragProxyService, times(1)).fetchModelCatalog();
+
+        clock.advance(Duration.ofMinutes(1));
+        registry.scheduledRefresh();
+        verify(ragProxyService, times(2)).fetchModelCatalog();
+    }
+
+    @Test
+    void emptyModelListKeepsThePreviousCatalog() {
+        when(ragProxyService.fetchModelCatalog()).thenReturn(Mono.just(CATALOG));
+        registry.scheduledRefresh();
+
+        when(ragProxyService.fetchModelCatalog())
+                .thenReturn(Mono.just(new ModelCatalog("deepinfra", List.of(), Instant.now())));
+        clock.advance(Duration.ofHours(1));
+        registry.scheduledRefresh();
+
+        assertThat(registry.current().block()).isEqualTo(CATALOG);
+    }
+
+    @Test
+    void emptyModelListBeforeFirstLoadServesFallback() {
+        when(ragProxyService.fetchModelCatalog())
+                .thenReturn(Mono.just(new ModelCatalog("deepinfra", List.of(), Instant.now())));
+
+        assertThat(registry.current().block()).isEqualTo(ModelRegistry.FALLBACK);
+    }
+
+    private static final class MutableClock extends Clock {
+
+        private Instant now = Instant.parse("2026-01-01T00:00:00Z");
+
+        void advance(Duration duration) {
+            now = now.plus(duration);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+    }
+}
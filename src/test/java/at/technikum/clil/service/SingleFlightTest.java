@@ -0,0 +1,117 @@
+package at.technikum.clil.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Sinks;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SingleFlightTest {
+
+    private final Counter coalesced = new SimpleMeterRegistry().counter("coalesced");
+    private final SingleFlight<String> singleFlight = new SingleFlight<>(coalesced);
+
+    private final AtomicInteger subscriptions = new AtomicInteger();
+    private final AtomicBoolean cancelled = new AtomicBoolean();
+    private Sinks.Many<String> upstream;
+
+    @Test
+    void concurrentCallsShareOneUpstream() {
+        List<String> first = new CopyOnWriteArrayList<>();
+        List<String> second = new CopyOnWriteArrayList<>();
+
+        call("key").subscribe(first::add);
+        call("key").subscribe(second::add);
+        upstream.tryEmitNext("a");
+        upstream.tryEmitComplete();
+
+        assertThat(subscriptions).hasValue(1);
+        assertThat(first).containsExactly("a");
+        assertThat(second).containsExactly("a");
+        assertThat(coalesced.count()).isEqualTo(1);
+    }
+
+    @Test
+    void lateJoinerGetsEmittedElementsReplayed() {
+        List<String> late = new CopyOnWriteArrayList<>();
+        call("key").subscribe();
+        upstream.tryEmitNext("a");
+
+        call("key").subscribe(late::add);
+        upstream.tryEmitNext("b");
+        upstream.tryEmitComplete();
+
+        assertThat(late).containsExactly("a", "b");
+        assertThat(subscriptions).hasValue(1);
+    }
+
+    @Test
+    void differentKeysDoNotCoalesce() {
+        call("one").subscribe();
+        call("two").subscribe();
+
+        assertThat(subscriptions).hasValue(2);
+        assertThat(coalesced.count()).isZero();
+    }
+
+    @Test
+    void completedFlightIsRemoved() {
+        call("key").subscribe();
+        upstream.tryEmitComplete();
+
+        call("key").subscribe();
+
+        assertThat(subscriptions).hasValue(2);
+        assertThat(coalesced.count()).isZero();
+    }
+
+    @Test
+    void errorReachesEverySubscriberAndRemovesTheFlight() {
+        AtomicReference<Throwable> first = new AtomicReference<>();
+        AtomicReference<Throwable> second = new AtomicReference<>();
+        call("key").subscribe(value -> { }, first::set);
+        call("key").subscribe(value -> { }, second::set);
+
+        upstream.tryEmitError(new IllegalStateException("rag down"));
+
+        assertThat(first.get()).hasMessage("rag down");
+        assertThat(second.get()).hasMessage("rag down");
+        call("key").subscribe(value -> { }, error -> { });
+        assertThat(subscriptions).hasValue(2);
+    }
+
+    @Test
+    void upstreamIsCancelledOnlyWhenTheLastSubscriberLeaves() {
+        Disposable first = call("key").subscribe();
+        Disposable second = call("key").subscribe();
+
+        first.dispose();
+        assertThat(cancelled).isFalse();
+
+        second.dispose();
+        assertThat(cancelled).isTrue();
+
+        // The cancelled flight is gone, the next call starts a new upstream
+        call("key").subscribe();
+        assertThat(subscriptions).hasValue(2);
+    }
+
+    private Flux<String> call(String key) {
+        return singleFlight.execute(key, () -> {
+            upstream = Sinks.many().unicast().onBackpressureBuffer();
+            cancelled.set(false);
+            return upstream.asFlux()
+                    .doOnSubscribe(subscription -> subscriptions.incrementAndGet())
+                    .doOnCancel(() -> cancelled.set(true));
+        });
+    }
+}
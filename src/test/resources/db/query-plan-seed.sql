@@ -0,0 +1,32 @@
+-- Large enough tables that the planner prefers an index over a sequential scan whenever one applies
+INSERT INTO users (id, username, email, password, approved, created_at)
+SELECT i, 'user' || i, 'user' || i || '@example.org', 'x', i % 100 <> 0, now() - i * interval '1 minute'
+FROM generate_series(1, 20000) i;
+
+INSERT INTO user_roles (user_id, role)
+SELECT id, 'USER' FROM users;
+
+INSERT INTO subjects (name, owner_id, created_at)
+SELECT 'subject' || i, 1 + i % 20000, now() - i * interval '1 second'
+FROM generate_series(1, 40000) i;
+
+INSERT INTO content_blobs (hash, data, original_size, created_at)
+SELECT md5(i::text) || md5((-i)::text), decode('00', 'hex'), 1, now() - interval '2 days'
+FROM generate_series(1, 200000) i;
+
+INSERT INTO lesson_materials (id, owner_id, material_type, topic, body_hash, subject, language_level,
+                              vocab_percentage, include_vocab_list, description, created_at, search_vector)
+SELECT i, 1 + i % 20000, 'type' || i % 8, 'topic' || i, md5(i::text) || md5((-i)::text), 'English', 'B1',
+       30, true, 'description', now() - i * interval '1 second', to_tsvector('simple', 'topic' || i)
+FROM generate_series(1, 200000) i;
+
+INSERT INTO material_tags (material_id, tag)
+SELECT id, 'tag' || id % 1000 FROM lesson_materials
+UNION ALL
+SELECT id, 'tag' || (id * 7 + 1) % 1000 FROM lesson_materials;
+
+INSERT INTO generation_jobs (owner_id, status, request, created_at)
+SELECT 1 + i % 20000, CASE WHEN i % 1000 = 0 THEN 'RUNNING' ELSE 'SUCCEEDED' END, '{}'::jsonb, now()
+FROM generate_series(1, 50000) i;
+
+ANALYZE;